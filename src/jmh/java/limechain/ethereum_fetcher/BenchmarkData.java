@@ -0,0 +1,153 @@
+package limechain.ethereum_fetcher;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Reproducible datasets and application setup shared by the benchmarks. The same size always gives the same data.
+ */
+public final class BenchmarkData {
+
+    public static final String JWT_SECRET = "62656e63686d61726b2d6f6e6c792d6b65792d6e6f742d7573656420656c7365";
+    private static final long SEED = 42;
+    private static final String H2_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+    private static final String POSTGRES_URL = System.getenv().getOrDefault("BENCHMARK_POSTGRES_URL", "jdbc:postgresql://localhost:54322/postgres");
+    private static final int INPUT_BYTES = 68;
+
+    private BenchmarkData() {
+    }
+
+    public static List<String> hashes(int size) {
+        Random random = new Random(SEED);
+        List<String> hashes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hashes.add(Hex.encode(bytes(random, Hex.HASH_BYTES)));
+        }
+        return hashes;
+    }
+
+    /**
+     * @return new transactions with hashes {@link #hashes(int)}
+     */
+    public static List<Transaction> transactions(int size) {
+        Random random = new Random(SEED + 1);
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (String hash : hashes(size)) {
+            BigInteger blockNumber = BigInteger.valueOf(7_000_000 + random.nextInt(100_000));
+            transactions.add(new Transaction(hash, random.nextBoolean(), Hex.encode(bytes(random, Hex.HASH_BYTES)), blockNumber,
+                    Hex.encode(bytes(random, Hex.ADDRESS_BYTES)), Hex.encode(bytes(random, Hex.ADDRESS_BYTES)), null, random.nextInt(10),
+                    Hex.encode(bytes(random, INPUT_BYTES)), BigInteger.valueOf(random.nextLong() & Long.MAX_VALUE), null));
+        }
+        return transactions;
+    }
+
+    /**
+     * @return hex encoded RLP list of {@link #hashes(int)}, without {@code 0x} prefix as the rlphex endpoint gets it
+     */
+    public static String rlphex(int size) {
+        List<RlpType> items = new ArrayList<>(size);
+        hashes(size).forEach(hash -> items.add(RlpString.create(Hex.decode(hash))));
+        return Hex.encode(RlpEncoder.encode(new RlpList(items))).substring(Hex.PREFIX.length());
+    }
+
+    /**
+     * @return JSON-RPC response of {@code eth_getTransactionReceipt} with the given number of ERC-20 transfer like logs
+     */
+    public static byte[] receiptResponse(int logsCount) {
+        Random random = new Random(SEED);
+        String address = Hex.encode(bytes(random, 20));
+        StringBuilder json = new StringBuilder("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"transactionHash\":\"")
+                .append(Hex.encode(bytes(random, 32)))
+                .append("\",\"transactionIndex\":\"0x1\",\"blockHash\":\"").append(Hex.encode(bytes(random, 32)))
+                .append("\",\"blockNumber\":\"0x12a05f2\",\"from\":\"").append(address)
+                .append("\",\"to\":\"").append(address)
+                .append("\",\"cumulativeGasUsed\":\"0x1c9c380\",\"gasUsed\":\"0x5208\",\"effectiveGasPrice\":\"0x3b9aca00\",\"contractAddress\":null")
+                .append(",\"logsBloom\":\"").append(Hex.encode(bytes(random, 256))).append("\",\"status\":\"0x1\",\"type\":\"0x2\",\"logs\":[");
+        for (int i = 0; i < logsCount; i++) {
+            json.append(i == 0 ? "{" : ",{")
+                    .append("\"address\":\"").append(address)
+                    .append("\",\"topics\":[\"").append(Hex.encode(bytes(random, 32))).append("\",\"").append(Hex.encode(bytes(random, 32)))
+                    .append("\",\"").append(Hex.encode(bytes(random, 32)))
+                    .append("\"],\"data\":\"").append(Hex.encode(bytes(random, 32)))
+                    .append("\",\"blockNumber\":\"0x12a05f2\",\"transactionIndex\":\"0x1\",\"logIndex\":\"").append("0x").append(Integer.toHexString(i))
+                    .append("\",\"removed\":false}");
+        }
+        return json.append("]}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts the application on a random port with an in-memory H2 database.
+     *
+     * @param args additional command line arguments
+     */
+    public static ConfigurableApplicationContext startApplication(String ethereumNodeUrl, String... args) {
+        List<String> allArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--ethereum.node.url=" + ethereumNodeUrl,
+                "--security.jwt.secret-key=" + JWT_SECRET,
+                "--spring.datasource.url=" + H2_URL,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.limechain=WARN"));
+        allArgs.addAll(List.of(args));
+        return new SpringApplicationBuilder(App.class, H2Configuration.class).run(allArgs.toArray(String[]::new));
+    }
+
+    /**
+     * Starts the application on a random port with the PostgreSQL database of {@code docker-compose-limeapi-db.yaml}, or
+     * the one at {@code BENCHMARK_POSTGRES_URL}. The schema is created and dropped by the application.
+     *
+     * @param args additional command line arguments
+     */
+    public static ConfigurableApplicationContext startApplicationOnPostgres(String ethereumNodeUrl, String... args) {
+        List<String> allArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--ethereum.node.url=" + ethereumNodeUrl,
+                "--security.jwt.secret-key=" + JWT_SECRET,
+                "--spring.datasource.url=" + POSTGRES_URL,
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.limechain=WARN"));
+        allArgs.addAll(List.of(args));
+        return new SpringApplicationBuilder(App.class).run(allArgs.toArray(String[]::new));
+    }
+
+    private static byte[] bytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Pool without the PostgreSQL specific data source properties of application.properties.
+     */
+    @Configuration
+    static class H2Configuration {
+
+        @Bean
+        DataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(H2_URL);
+            dataSource.setUsername("sa");
+            return dataSource;
+        }
+    }
+}
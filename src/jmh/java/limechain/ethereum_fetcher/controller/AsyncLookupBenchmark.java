@@ -0,0 +1,104 @@
+package limechain.ethereum_fetcher.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+import limechain.ethereum_fetcher.service.StubEthereumNode;
+import limechain.ethereum_fetcher.service.TransactionService;
+
+/**
+ * Load test of {@code /lime/eth} over HTTP against a server with {@value #TOMCAT_THREADS} request threads and a
+ * {@link StubEthereumNode} answering after {@value #NODE_DELAY_MS} ms. While 16 clients look up unknown hashes, which
+ * all go to the slow node, 4 clients look up stored hashes. Compare the throughput of {@code storedHit} with and without
+ * asynchronous lookups: waiting on the request threads, the slow lookups starve the stored ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class AsyncLookupBenchmark {
+    private static final int TOMCAT_THREADS = 8;
+    private static final long NODE_DELAY_MS = 500;
+    private static final int STORED = 100;
+
+    @Param({ "true", "false" })
+    boolean async;
+
+    private StubEthereumNode node;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String uri;
+    private List<String> storedHashes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, TransactionException {
+        storedHashes = BenchmarkData.hashes(STORED);
+        node = new StubEthereumNode();
+        storedHashes.forEach(hash -> node.addTransaction(hash, 7_000_000, 2));
+        context = BenchmarkData.startApplication(node.url(), "--server.tomcat.threads.max=" + TOMCAT_THREADS, "--transaction.lookup.async.enabled=" + async);
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        UsernamePasswordAuthenticationToken anonymous = new UsernamePasswordAuthenticationToken(null, null);
+        anonymous.setAuthenticated(false);
+        SecurityContextHolder.getContext().setAuthentication(anonymous);
+        context.getBean(TransactionService.class).findByHashList(storedHashes);
+        node.setDelayMillis(NODE_DELAY_MS);
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        uri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/lime/eth?transactionHashes=";
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public int slowMiss() throws IOException, InterruptedException {
+        return get(String.format("0x%064x", ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public int storedHit() throws IOException, InterruptedException {
+        return get(storedHashes.get(ThreadLocalRandom.current().nextInt(STORED)));
+    }
+
+    private int get(String hash) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri + hash)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        node.close();
+    }
+}
@@ -0,0 +1,86 @@
+package limechain.ethereum_fetcher.dto;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+
+/**
+ * Serialization of the lookup response as JSON against the CBOR and Smile encodings negotiated by the {@code Accept}
+ * header, all configured as Spring MVC does. The payload size per response is reported as the secondary result
+ * {@code payloadBytes}, the client side is measured by {@code parse}. Run with {@code -prof gc} to compare allocation
+ * rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({ "json", "cbor", "smile" })
+    String format;
+
+    @Param({ "100", "10000" })
+    int size;
+
+    private ObjectMapper objectMapper;
+    private TransactionsDto dto;
+    private byte[] payload;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+        case "cbor" -> new CBORMapper();
+        case "smile" -> new SmileMapper();
+        default -> new ObjectMapper();
+        };
+        new Jackson2ObjectMapperBuilder().configure(objectMapper);
+        dto = new TransactionsDto(BenchmarkData.transactions(size));
+        payload = objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serialize(Payload counters) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(dto);
+        counters.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public JsonNode parse() throws IOException {
+        return objectMapper.readTree(payload);
+    }
+}
@@ -0,0 +1,89 @@
+package limechain.ethereum_fetcher.repository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+import limechain.ethereum_fetcher.model.Transaction;
+
+/**
+ * Storing transactions fetched from the node, the bulk insert of the lookups (skipping stored hashes) and the plain bulk
+ * insert against per-row inserts in own transactions, as the lookups stored them before. Runs against H2,
+ * {@code -p database=h2,postgres} adds PostgreSQL, see {@link BenchmarkData#startApplicationOnPostgres}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionInsertBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int size;
+
+    @Param({ "h2" })
+    String database;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate perRow;
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "postgres".equals(database) ? BenchmarkData.startApplicationOnPostgres("http://127.0.0.1:1")
+                : BenchmarkData.startApplication("http://127.0.0.1:1");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        perRow = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        perRow.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Fresh entities for every insert, with the table of the previous invocation cleared.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        transactionRepository.deleteAllInBatch();
+        transactions = BenchmarkData.transactions(size);
+    }
+
+    @Benchmark
+    public List<Transaction> saveAllNew() {
+        return transactionRepository.saveAllNew(transactions);
+    }
+
+    @Benchmark
+    public List<Transaction> saveMissingAndLink() {
+        return transactionRepository.saveMissingAndLink(transactions, null);
+    }
+
+    @Benchmark
+    public int saveOneByOne() {
+        transactions.forEach(transaction -> perRow.executeWithoutResult(status -> transactionRepository.save(transaction)));
+        return transactions.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
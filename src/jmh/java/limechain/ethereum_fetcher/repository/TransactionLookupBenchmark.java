@@ -0,0 +1,59 @@
+package limechain.ethereum_fetcher.repository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+import limechain.ethereum_fetcher.model.Transaction;
+
+/**
+ * Hash lookup against H2 holding {@code size} transactions. Run on two revisions to compare storage layouts of the hash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionLookupBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    int size;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private List<String> hashes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startApplication("http://127.0.0.1:1");
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionRepository.saveAllNew(BenchmarkData.transactions(size));
+        hashes = BenchmarkData.hashes(size);
+    }
+
+    @Benchmark
+    public List<Transaction> findByHashIn() {
+        return transactionRepository.findByHashIn(hashes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
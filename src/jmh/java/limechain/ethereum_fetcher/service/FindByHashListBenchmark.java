@@ -0,0 +1,97 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+/**
+ * {@link TransactionService#findByHashList(List)} of an anonymous user against H2, with the transactions served from the
+ * cache, from the DB or fetched from a {@link StubEthereumNode} on loopback.
+ *
+ * The DB and node sources reset the state before every invocation, so sizes much below 100 are dominated by the reset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindByHashListBenchmark {
+
+    public enum Source {
+        CACHE, DB, NODE
+    }
+
+    @Param({ "1", "100", "10000" })
+    int size;
+
+    @Param({ "CACHE", "DB", "NODE" })
+    Source source;
+
+    private StubEthereumNode node;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private TransactionCache transactionCache;
+    private TransactionRepository transactionRepository;
+    private List<String> hashes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, TransactionException {
+        hashes = BenchmarkData.hashes(size);
+        node = new StubEthereumNode();
+        hashes.forEach(hash -> node.addTransaction(hash, 7_000_000, 2));
+        context = BenchmarkData.startApplication(node.url());
+        transactionService = context.getBean(TransactionService.class);
+        transactionCache = context.getBean(TransactionCache.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        UsernamePasswordAuthenticationToken anonymous = new UsernamePasswordAuthenticationToken(null, null);
+        anonymous.setAuthenticated(false);
+        SecurityContextHolder.getContext().setAuthentication(anonymous);
+
+        transactionService.findByHashList(hashes);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        if (source != Source.CACHE) {
+            hashes.forEach(transactionCache::invalidate);
+        }
+        if (source == Source.NODE) {
+            transactionRepository.deleteAllInBatch();
+        }
+    }
+
+    @Benchmark
+    public FetchResult findByHashList() throws IOException, TransactionException {
+        return transactionService.findByHashList(hashes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        node.close();
+    }
+}
@@ -0,0 +1,59 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import limechain.ethereum_fetcher.BenchmarkData;
+import limechain.ethereum_fetcher.model.User;
+
+/**
+ * JWT handling done by the authentication filter on every request carrying a token, with warm claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(BenchmarkData.JWT_SECRET, TimeUnit.HOURS.toMillis(1), 10_000);
+        user = new User("alice", "alice", null);
+        token = jwtService.generateToken(user);
+    }
+
+    /**
+     * Parsing and signature verification, which a token not seen before costs.
+     */
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtService.parseClaims(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
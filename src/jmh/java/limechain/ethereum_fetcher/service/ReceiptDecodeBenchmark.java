@@ -0,0 +1,56 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+
+/**
+ * Decoding of an {@code eth_getTransactionReceipt} response as {@link ReceiptSummary} against the full web3j receipt,
+ * by the web3j object mapper. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptDecodeBenchmark {
+
+    @Param({ "0", "10", "500" })
+    int logsCount;
+
+    private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        response = BenchmarkData.receiptResponse(logsCount);
+    }
+
+    @Benchmark
+    public int receiptSummary() throws IOException {
+        return mapper.readValue(response, BlockchainService.ReceiptSummaryResponse.class).getResult().getLogsCount();
+    }
+
+    @Benchmark
+    public int web3jReceipt() throws IOException {
+        return mapper.readValue(response, EthGetTransactionReceipt.class).getTransactionReceipt().orElseThrow().getLogs().size();
+    }
+}
@@ -0,0 +1,76 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.rlp.RlpDecoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+import limechain.ethereum_fetcher.BenchmarkData;
+
+/**
+ * Decoding of the rlphex payload by {@link RlpHashDecoder} against the former web3j RLP tree based decoding. Run with
+ * {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RlpDecodeBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    int size;
+
+    private String rlphex;
+
+    @Setup
+    public void setUp() {
+        rlphex = BenchmarkData.rlphex(size);
+    }
+
+    @Benchmark
+    public List<String> singlePass() {
+        return TransactionService.decodeRlpAndGetTransactions(rlphex);
+    }
+
+    @Benchmark
+    public List<String> web3jRlpTree() {
+        return decodeWithRlpTree(rlphex);
+    }
+
+    /**
+     * The decoding replaced by {@link RlpHashDecoder}, kept as baseline.
+     */
+    private static List<String> decodeWithRlpTree(String rlphex) {
+        int len = rlphex.length();
+        byte[] rlpEncodedBytes = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            rlpEncodedBytes[i / 2] = (byte) ((Character.digit(rlphex.charAt(i), 16) << 4) + Character.digit(rlphex.charAt(i + 1), 16));
+        }
+
+        RlpList rlpList = RlpDecoder.decode(rlpEncodedBytes);
+        List<String> transactionHashes = new ArrayList<>();
+        for (RlpType rlpType : ((RlpList) rlpList.getValues().get(0)).getValues()) {
+            if (rlpType instanceof RlpString) {
+                transactionHashes.add(((RlpString) rlpType).asString());
+            }
+        }
+        return transactionHashes;
+    }
+}
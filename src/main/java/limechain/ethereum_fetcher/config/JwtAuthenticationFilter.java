@@ -1,23 +1,27 @@
 package limechain.ethereum_fetcher.config;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import limechain.ethereum_fetcher.model.AuthenticatedUser;
 import limechain.ethereum_fetcher.service.JwtService;
+import limechain.ethereum_fetcher.service.UserIdentityCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,39 +31,62 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final String AUTHORIZATION = "AUTH_TOKEN";
+    private static final String METRIC_AUTHENTICATION = "security.jwt.authentication";
+    private static final String TAG_RESULT = "result";
+    private static final String RESULT_ANONYMOUS = "anonymous";
+    private static final String RESULT_ACCEPTED = "accepted";
+    private static final String RESULT_REJECTED = "rejected";
+    private static final String RESULT_INVALID = "invalid";
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserIdentityCache userIdentityCache;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
         final String jwt = request.getHeader(AUTHORIZATION);
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String result = RESULT_ACCEPTED;
 
         if (jwt == null || ObjectUtils.isEmpty(jwt.trim())) {
             log.info("JWT token not presented");
+            result = RESULT_ANONYMOUS;
             setNotAuthenticated(request, response, filterChain);
         } else {
             try {
-                final String userName = jwtService.extractUsername(jwt);
+                final Claims claims = jwtService.extractAllClaims(jwt);
+                final String userName = claims.getSubject();
 
                 Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
                 if (userName != null && authentication == null) {
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userName);
+                    Long userId = jwtService.extractUserId(claims);
+                    if (userId == null) {
+                        // token issued before the user id claim was introduced
+                        userId = userIdentityCache.findUserId(userName).orElse(null);
+                    }
 
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    if (userId != null && jwtService.isTokenValid(claims)) {
+                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(new AuthenticatedUser(userId, userName), null,
+                                List.of());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
+                    } else {
+                        log.info("JWT token not accepted for user {}", userName);
+                        result = RESULT_REJECTED;
+                        setNotAuthenticated(request, response, filterChain);
                     }
                 }
 
             } catch (Exception e) {
                 log.info("JWT token not valid, reason: _{}", e.getMessage());
+                result = RESULT_INVALID;
                 setNotAuthenticated(request, response, filterChain);
 
             }
         }
+        sample.stop(meterRegistry.timer(METRIC_AUTHENTICATION, TAG_RESULT, result));
         filterChain.doFilter(request, response);
     }
 
@@ -0,0 +1,37 @@
+package limechain.ethereum_fetcher.config;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Counts the connections opened to the nodes and the connections taken by node calls, per protocol. Calls which did
+ * not open a connection reused a pooled one.
+ */
+public class NodeConnectionListener extends EventListener {
+
+    static final String METRIC_CONNECTIONS_OPENED = "ethereum.node.http.connections.opened";
+    static final String METRIC_CONNECTIONS_ACQUIRED = "ethereum.node.http.connections.acquired";
+    private static final String TAG_PROTOCOL = "protocol";
+
+    private final MeterRegistry meterRegistry;
+
+    public NodeConnectionListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        meterRegistry.counter(METRIC_CONNECTIONS_OPENED, TAG_PROTOCOL, String.valueOf(protocol)).increment();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        meterRegistry.counter(METRIC_CONNECTIONS_ACQUIRED, TAG_PROTOCOL, connection.protocol().toString()).increment();
+    }
+}
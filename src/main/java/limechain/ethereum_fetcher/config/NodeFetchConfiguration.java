@@ -0,0 +1,87 @@
+package limechain.ethereum_fetcher.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Executor used to fetch transactions from the Ethereum node in parallel with the request thread.
+ * Bounded platform thread pool with a bounded queue of {@code ethereum.node.fetch-queue-size} chunks, chunks beyond it
+ * are reported failed. The number of concurrent requests to every node is limited separately by the node pool.
+ *
+ * Blocks are prefetched in the background by a separate small pool with a bounded queue, so prefetch never delays
+ * lookups and is dropped when the queue is full.
+ *
+ * Lookups of the {@code /eth} endpoints which miss the cache and the DB wait for the node on the lookup executor instead of
+ * a request thread. Its bounded queue is the back-pressure of the endpoints, lookups beyond it are rejected.
+ *
+ * All node calls share one HTTP client with a pool of {@code ethereum.node.http.max-idle-connections} connections kept
+ * alive for {@code ethereum.node.http.keep-alive-ms}. Responses are gzip compressed when the node supports it, HTTPS
+ * nodes are called over HTTP/2 when they negotiate it, {@code ethereum.node.http.h2c} calls plain HTTP nodes over
+ * HTTP/2 without negotiation.
+ */
+@Configuration
+public class NodeFetchConfiguration {
+    public static final String NODE_FETCH_EXECUTOR = "nodeFetchExecutor";
+    public static final String BLOCK_PREFETCH_EXECUTOR = "blockPrefetchExecutor";
+    public static final String NODE_HTTP_CLIENT = "nodeHttpClient";
+    public static final String LOOKUP_EXECUTOR = "lookupExecutor";
+    private static final String METRIC_CONNECTIONS_IDLE = "ethereum.node.http.connections.idle";
+    private static final String METRIC_CONNECTIONS_OPEN = "ethereum.node.http.connections.open";
+
+    @Bean(name = NODE_FETCH_EXECUTOR, destroyMethod = "shutdownNow")
+    ExecutorService nodeFetchExecutor(@Value("${ethereum.node.fetch-threads:16}") int fetchThreads,
+            @Value("${ethereum.node.fetch-queue-size:1000}") int queueSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("node-fetch-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(fetchThreads, fetchThreads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), threadFactory);
+    }
+
+    @Bean(name = BLOCK_PREFETCH_EXECUTOR, destroyMethod = "shutdownNow")
+    ExecutorService blockPrefetchExecutor(@Value("${ethereum.node.block-prefetch.threads:2}") int threads,
+            @Value("${ethereum.node.block-prefetch.queue-size:100}") int queueSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("block-prefetch-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), threadFactory);
+    }
+
+    @Bean(name = LOOKUP_EXECUTOR, destroyMethod = "shutdownNow")
+    ExecutorService lookupExecutor(@Value("${transaction.lookup.async.threads:32}") int threads,
+            @Value("${transaction.lookup.async.queue-size:1000}") int queueSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("lookup-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), threadFactory);
+    }
+
+    @Bean(name = NODE_HTTP_CLIENT)
+    OkHttpClient nodeHttpClient(@Value("${ethereum.node.http.max-idle-connections:32}") int maxIdleConnections,
+            @Value("${ethereum.node.http.keep-alive-ms:300000}") long keepAliveMs, @Value("${ethereum.node.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${ethereum.node.http.read-timeout-ms:10000}") long readTimeoutMs, @Value("${ethereum.node.http.h2c:false}") boolean h2c,
+            MeterRegistry meterRegistry) {
+        ConnectionPool connectionPool = new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS);
+        Gauge.builder(METRIC_CONNECTIONS_IDLE, connectionPool, ConnectionPool::idleConnectionCount).register(meterRegistry);
+        Gauge.builder(METRIC_CONNECTIONS_OPEN, connectionPool, ConnectionPool::connectionCount).register(meterRegistry);
+        // no Accept-Encoding is set on the calls, so the client asks for gzip and decompresses transparently
+        return new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
+                .protocols(h2c ? List.of(Protocol.H2_PRIOR_KNOWLEDGE) : List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .eventListener(new NodeConnectionListener(meterRegistry))
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package limechain.ethereum_fetcher.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Responses are negotiated by the {@code Accept} header: JSON by default, the same documents encoded as CBOR
+ * ({@code application/cbor}) or Smile ({@value #APPLICATION_SMILE_VALUE}) on request. Binary encodings carry numbers
+ * and big integers in binary and need no parsing of text, which shrinks the responses and speeds up the clients.
+ *
+ * Both mappers are configured by the Spring Boot object mapper builder, so they serialize the same as the JSON one.
+ */
+@Configuration
+public class ResponseFormatConfiguration {
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        CBORMapper mapper = new CBORMapper();
+        builder.configure(mapper);
+        return new MappingJackson2CborHttpMessageConverter(mapper);
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileMapper mapper = new SmileMapper();
+        builder.configure(mapper);
+        return new MappingJackson2SmileHttpMessageConverter(mapper);
+    }
+}
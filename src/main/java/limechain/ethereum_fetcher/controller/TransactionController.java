@@ -1,25 +1,47 @@
 package limechain.ethereum_fetcher.controller;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.web3j.protocol.exceptions.TransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import limechain.ethereum_fetcher.config.Constants;
+import limechain.ethereum_fetcher.config.ResponseFormatConfiguration;
 import limechain.ethereum_fetcher.dto.TransactionsDto;
 import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.service.FetchResult;
+import limechain.ethereum_fetcher.service.HashStreamReader;
+import limechain.ethereum_fetcher.service.TransactionBulkLookup;
+import limechain.ethereum_fetcher.service.TransactionExporter;
+import limechain.ethereum_fetcher.service.TransactionPage;
 import limechain.ethereum_fetcher.service.TransactionService;
+import limechain.ethereum_fetcher.service.TransactionStreamer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,40 +55,185 @@ public class TransactionController {
     private static final String URI_ETH = "/eth";
     private static final String PARAM_RLPHEX = "rlphex";
     private static final String PARAM_TRANSACTION_HASHES = "transactionHashes";
+    static final String PARAM_AFTER = "after";
+    static final String PARAM_LIMIT = "limit";
+    static final String METRIC_REQUEST_HASHES = "transactions.request.hashes";
+    private static final String TAG_ENDPOINT = "endpoint";
+    private static final String ENDPOINT_BULK = "bulk";
+    private static final String RETRY_AFTER_SECONDS = "1";
 
     private final TransactionService service;
+    private final TransactionExporter exporter;
+    private final TransactionBulkLookup bulkLookup;
+    private final TransactionStreamer streamer;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+    private final MeterRegistry meterRegistry;
 
     @GetMapping(URI_ALL)
-    ResponseEntity<Collection<Transaction>> findAll() {
-        return new ResponseEntity(new TransactionsDto(service.findAll()), HttpStatus.OK);
+    ResponseEntity<Collection<Transaction>> findAll(@RequestParam(value = PARAM_AFTER, required = false) String after,
+            @RequestParam(value = PARAM_LIMIT, required = false) Integer limit) {
+        try {
+            TransactionPage page = service.findAll(after, limit);
+            return new ResponseEntity(new TransactionsDto(page.getTransactions(), page.getNext()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = URI_ALL, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(exporter::exportAll);
     }
 
     @GetMapping(URI_ETH)
-    ResponseEntity<Collection<Transaction>> findByHashList(@RequestParam(value = PARAM_TRANSACTION_HASHES) List<String> transactionHashes) {
+    CompletableFuture<ResponseEntity<Collection<Transaction>>> findByHashList(@RequestParam(value = PARAM_TRANSACTION_HASHES) List<String> transactionHashes) {
         if (CollectionUtils.isEmpty(transactionHashes)) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         } else {
-            try {
-                return new ResponseEntity(new TransactionsDto(service.findByHashList(transactionHashes)), HttpStatus.OK);
-            } catch (IOException | TransactionException e) {
-                log.error(e.getMessage(), e);
-                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-            }
+            recordHashes(URI_ETH, transactionHashes.size());
+            return lookup(transactionHashes);
         }
     }
 
     @GetMapping(URI_ETH + "/{" + PARAM_RLPHEX + "}")
-    ResponseEntity<Collection<Transaction>> findByRlphex(@PathVariable(name = PARAM_RLPHEX) String rlphexHashes) throws IOException, TransactionException {
+    CompletableFuture<ResponseEntity<Collection<Transaction>>> findByRlphex(@PathVariable(name = PARAM_RLPHEX) String rlphexHashes) {
         if (ObjectUtils.isEmpty(rlphexHashes)) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         } else {
+            List<String> hashes;
             try {
-                return new ResponseEntity(new TransactionsDto(service.findByRlphex(rlphexHashes)), HttpStatus.OK);
-            } catch (IOException | TransactionException e) {
-                log.error(e.getMessage(), e);
-                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+                hashes = TransactionService.decodeRlpAndGetTransactions(rlphexHashes);
+            } catch (IllegalArgumentException e) {
+                log.debug("Invalid rlphex: {}", e.getMessage());
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            }
+            recordHashes(PARAM_RLPHEX, hashes.size());
+            return lookup(hashes);
+        }
+    }
+
+    @GetMapping(value = URI_ETH, produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    ResponseEntity<StreamingResponseBody> streamByHashList(@RequestParam(value = PARAM_TRANSACTION_HASHES) List<String> transactionHashes,
+            @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        recordHashes(URI_ETH, transactionHashes.size());
+        return stream(transactionHashes, accept);
+    }
+
+    @GetMapping(value = URI_ETH + "/{" + PARAM_RLPHEX + "}", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    ResponseEntity<StreamingResponseBody> streamByRlphex(@PathVariable(name = PARAM_RLPHEX) String rlphexHashes, @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        List<String> hashes;
+        try {
+            hashes = TransactionService.decodeRlpAndGetTransactions(rlphexHashes);
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid rlphex: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        recordHashes(PARAM_RLPHEX, hashes.size());
+        return stream(hashes, accept);
+    }
+
+    /**
+     * Server-sent events when accepted, newline delimited JSON otherwise.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(List<String> hashes, String accept) {
+        boolean sse = MediaType.parseMediaTypes(accept).stream().anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype);
+        TransactionStreamer.Format format = sse ? TransactionStreamer.Format.SSE : TransactionStreamer.Format.NDJSON;
+        return ResponseEntity.ok().contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON).cacheControl(CacheControl.noCache())
+                .body(out -> streamer.stream(hashes, format, out));
+    }
+
+    @PostMapping(value = URI_ETH, consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<StreamingResponseBody> findByJsonBody(InputStream body, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        return bulkLookup(body, HashStreamReader.Format.JSON, accept);
+    }
+
+    @PostMapping(value = URI_ETH, consumes = { MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    ResponseEntity<StreamingResponseBody> findByLinesBody(InputStream body, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        return bulkLookup(body, HashStreamReader.Format.LINES, accept);
+    }
+
+    @PostMapping(value = URI_ETH, consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    ResponseEntity<StreamingResponseBody> findByBinaryBody(InputStream body, @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        return bulkLookup(body, HashStreamReader.Format.BINARY, accept);
+    }
+
+    /**
+     * The hashes are read on the request thread, so a body which is too large or malformed is rejected before the lookup
+     * starts. The lookup streams the response from the async request thread, as JSON unless CBOR or Smile is accepted.
+     */
+    private ResponseEntity<StreamingResponseBody> bulkLookup(InputStream body, HashStreamReader.Format format, String accept) throws IOException {
+        List<String> hashes;
+        try {
+            hashes = bulkLookup.readHashes(body, format);
+        } catch (TransactionBulkLookup.TooManyHashesException e) {
+            log.debug("Bulk lookup rejected: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid bulk lookup body: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        recordHashes(ENDPOINT_BULK, hashes.size());
+        AbstractJackson2HttpMessageConverter converter = bulkConverter(accept);
+        if (converter == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> bulkLookup.write(hashes, out));
+        }
+        return ResponseEntity.ok().contentType(converter.getSupportedMediaTypes().get(0)).body(out -> bulkLookup.write(hashes, converter.getObjectMapper(), out));
+    }
+
+    /**
+     * @return converter of the first accepted binary encoding, null for JSON
+     */
+    private AbstractJackson2HttpMessageConverter bulkConverter(String accept) {
+        if (accept == null) {
+            return null;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.isWildcardType() || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return null;
+            }
+            if (MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+                return cborConverter;
+            }
+            if (ResponseFormatConfiguration.APPLICATION_SMILE.isCompatibleWith(mediaType)) {
+                return smileConverter;
             }
         }
+        return null;
+    }
+
+    /**
+     * Lookups served by the cache and the DB complete on the request thread, the others release it while the node is
+     * fetched. Answers 503 when too many lookups are pending or the lookup timed out.
+     */
+    private CompletableFuture<ResponseEntity<Collection<Transaction>>> lookup(List<String> hashes) {
+        try {
+            return service.findByHashListAsync(hashes).<ResponseEntity<Collection<Transaction>>>handle((result, e) -> {
+                if (e == null) {
+                    return new ResponseEntity(toDto(result), HttpStatus.OK);
+                }
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof TimeoutException) {
+                    log.warn("Lookup of {} hashes timed out", hashes.size());
+                    return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+                }
+                log.error(cause.getMessage(), cause);
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Too many pending lookups, rejecting lookup of {} hashes", hashes.size());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build());
+        }
+    }
+
+    private void recordHashes(String endpoint, int hashes) {
+        DistributionSummary.builder(METRIC_REQUEST_HASHES).baseUnit("hashes").tag(TAG_ENDPOINT, endpoint).register(meterRegistry).record(hashes);
+    }
 
+    private static TransactionsDto toDto(FetchResult result) {
+        return new TransactionsDto(result.getTransactions(), result.getFailedHashes());
     }
 }
\ No newline at end of file
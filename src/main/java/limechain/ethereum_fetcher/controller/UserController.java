@@ -3,17 +3,22 @@ package limechain.ethereum_fetcher.controller;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import limechain.ethereum_fetcher.config.Constants;
 import limechain.ethereum_fetcher.dto.TransactionsDto;
+import limechain.ethereum_fetcher.model.AuthenticatedUser;
 import limechain.ethereum_fetcher.model.Transaction;
-import limechain.ethereum_fetcher.model.User;
+import limechain.ethereum_fetcher.service.TransactionExporter;
+import limechain.ethereum_fetcher.service.TransactionPage;
 import limechain.ethereum_fetcher.service.UserService;
 import lombok.RequiredArgsConstructor;
 
@@ -23,13 +28,31 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
     private static final String URI_MY = "/my";
     private final UserService userService;
+    private final TransactionExporter exporter;
 
     @GetMapping(URI_MY)
-    public ResponseEntity<List<Transaction>> usersTransactions() {
+    public ResponseEntity<List<Transaction>> usersTransactions(@RequestParam(value = TransactionController.PARAM_AFTER, required = false) String after,
+            @RequestParam(value = TransactionController.PARAM_LIMIT, required = false) Integer limit) {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (!authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return new ResponseEntity(new TransactionsDto(userService.usersTransactions((User) authentication.getPrincipal())), HttpStatus.OK);
+        try {
+            TransactionPage page = userService.usersTransactions(((AuthenticatedUser) authentication.getPrincipal()).getId(), after, limit);
+            return new ResponseEntity(new TransactionsDto(page.getTransactions(), page.getNext()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
 	}
+
+    @GetMapping(value = URI_MY, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsersTransactions() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!authentication.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> exporter.exportByUser(userId, out));
+    }
 }
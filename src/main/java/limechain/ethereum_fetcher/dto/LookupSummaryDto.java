@@ -0,0 +1,26 @@
+package limechain.ethereum_fetcher.dto;
+
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Last record of a streamed lookup.
+ */
+@Data
+@AllArgsConstructor
+public class LookupSummaryDto {
+    /** Hashes of no transaction, neither stored nor known to the Ethereum node. */
+    private Set<String> notFoundHashes;
+
+    /** Hashes which could not be fetched from the Ethereum node, the client may retry them later. */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Set<String> failedHashes;
+
+    /** Requested strings which are no hex hashes, as requested. */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Set<String> malformedHashes;
+}
@@ -1,6 +1,9 @@
 package limechain.ethereum_fetcher.dto;
 
 import java.util.Collection;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import limechain.ethereum_fetcher.model.Transaction;
 import lombok.Data;
@@ -9,7 +12,25 @@ import lombok.Data;
 public class TransactionsDto {
     private Collection<Transaction> transactions;
 
+    /** Hashes which could not be fetched from the Ethereum node, the client may retry them later. */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Set<String> failedHashes;
+
+    /** Cursor of the next page, absent on the last page. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
+
     public TransactionsDto(Collection<Transaction> transactions) {
         this.transactions = transactions;
     }
+
+    public TransactionsDto(Collection<Transaction> transactions, Set<String> failedHashes) {
+        this.transactions = transactions;
+        this.failedHashes = failedHashes;
+    }
+
+    public TransactionsDto(Collection<Transaction> transactions, String next) {
+        this.transactions = transactions;
+        this.next = next;
+    }
 }
@@ -0,0 +1,16 @@
+package limechain.ethereum_fetcher.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Principal of a request authenticated by JWT, taken from the token claims without loading the {@link User}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthenticatedUser {
+    private final Long id;
+    private final String username;
+}
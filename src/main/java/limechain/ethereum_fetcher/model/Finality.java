@@ -0,0 +1,13 @@
+package limechain.ethereum_fetcher.model;
+
+/**
+ * Confirmation state of a stored transaction.
+ */
+public enum Finality {
+    /** Not mined yet, no block. */
+    PENDING,
+    /** Mined with fewer confirmations than required, the block may still be reorged out. */
+    PROVISIONAL,
+    /** Its block was verified with enough confirmations, the transaction does not change anymore. */
+    FINAL
+}
@@ -0,0 +1,23 @@
+package limechain.ethereum_fetcher.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Stores hex string attributes as raw bytes, half the size of the text. Read values are lower case with {@code 0x}
+ * prefix, the form the node returns them in.
+ */
+@Converter
+public class HexConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String hex) {
+        return hex == null ? null : Hex.decode(hex);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : Hex.encode(bytes);
+    }
+}
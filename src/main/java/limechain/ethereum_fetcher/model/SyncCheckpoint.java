@@ -0,0 +1,39 @@
+package limechain.ethereum_fetcher.model;
+
+import java.math.BigInteger;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import limechain.ethereum_fetcher.util.Hex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last block processed by a background job, the job resumes after it.
+ */
+@Entity
+@Table(name = SyncCheckpoint.TABLE_NAME)
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncCheckpoint extends BaseEntity {
+    static final String TABLE_NAME = "sync_checkpoint";
+
+    @Column(unique = true, length = 100, nullable = false)
+    private String name;
+
+    private BigInteger blockNumber;
+
+    /** Hash of the block, null when unknown. */
+    @Convert(converter = HexConverter.class)
+    @Column(length = Hex.HASH_BYTES)
+    private String blockHash;
+
+    public void moveTo(BigInteger blockNumber, String blockHash) {
+        this.blockNumber = blockNumber;
+        this.blockHash = blockHash;
+    }
+}
@@ -3,23 +3,38 @@ package limechain.ethereum_fetcher.model;
 import java.math.BigInteger;
 import java.util.Set;
 
+import org.hibernate.Length;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import limechain.ethereum_fetcher.util.Hex;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Hashes, addresses and input are stored as bytes, see {@link HexConverter}.
+ *
+ * New transactions are {@link Finality#PENDING} without a block and {@link Finality#PROVISIONAL} with one, the index on
+ * finality and block number serves the sweep which verifies them.
+ */
 @Entity
-@Table(name = Transaction.TABLE_NAME, uniqueConstraints = { @UniqueConstraint(name = Transaction.UQ_TRANSACTION_HASH, columnNames = { Transaction.TRANSACTION_HASH }) })
+@Table(name = Transaction.TABLE_NAME, uniqueConstraints = { @UniqueConstraint(name = Transaction.UQ_TRANSACTION_HASH, columnNames = { Transaction.TRANSACTION_HASH }) },
+       indexes = { @Index(name = Transaction.IDX_FINALITY_BLOCK_NUMBER, columnList = Transaction.FINALITY + "," + Transaction.BLOCK_NUMBER) })
 @Getter
 @Setter
 @AllArgsConstructor
@@ -31,30 +46,40 @@ public class Transaction extends BaseEntity {
     private static final String TO_ = "to_";
     static final String TABLE_NAME = "transaction";
     static final String TRANSACTION_HASH = "hash";
+    static final String FINALITY = "finality";
+    static final String BLOCK_NUMBER = "block_number";
+    static final String IDX_FINALITY_BLOCK_NUMBER = "idx_" + FINALITY + "_" + BLOCK_NUMBER;
     public static final String UQ_TRANSACTION_HASH = "UQ_" + Transaction.TRANSACTION_HASH;
 
-    @Column(name = TRANSACTION_HASH, columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(name = TRANSACTION_HASH, length = Hex.HASH_BYTES)
     private String hash;
 
     private Boolean status;
 
-    @Column(columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(length = Hex.HASH_BYTES)
     private String blockHash;
 
+    @Column(name = BLOCK_NUMBER)
     private BigInteger blockNumber;
 
-    @Column(name = FROM_, columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(name = FROM_, length = Hex.ADDRESS_BYTES)
     private String from;
 
-    @Column(name = TO_, columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(name = TO_, length = Hex.ADDRESS_BYTES)
     private String to;
 
-    @Column(columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(length = Hex.ADDRESS_BYTES)
     private String contractAddress;
 
     private Integer logsCount;
 
-    @Column(columnDefinition = "TEXT")
+    @Convert(converter = HexConverter.class)
+    @Column(length = Length.LONG32)
     private String input;
 
     @Column(name = VALUE_)
@@ -64,6 +89,40 @@ public class Transaction extends BaseEntity {
     @ManyToMany(mappedBy = "transactions", fetch = FetchType.LAZY)
     private Set<User> users;
 
+    @JsonIgnore
+    @Enumerated(EnumType.STRING)
+    @Column(name = FINALITY, length = 16)
+    private Finality finality;
+
+    /**
+     * New transaction, its finality is set on insert.
+     */
+    public Transaction(String hash, Boolean status, String blockHash, BigInteger blockNumber, String from, String to, String contractAddress,
+            Integer logsCount, String input, BigInteger value, Set<User> users) {
+        this(hash, status, blockHash, blockNumber, from, to, contractAddress, logsCount, input, value, users, null);
+    }
+
+    /**
+     * Hex attributes take the form they are read from the DB in, see {@link HexConverter}, so that the inserted entity
+     * matches the loaded ones.
+     */
+    @PrePersist
+    void beforeInsert() {
+        hash = normalizeHex(hash);
+        blockHash = normalizeHex(blockHash);
+        from = normalizeHex(from);
+        to = normalizeHex(to);
+        contractAddress = normalizeHex(contractAddress);
+        input = normalizeHex(input);
+        if (finality == null) {
+            finality = blockNumber == null ? Finality.PENDING : Finality.PROVISIONAL;
+        }
+    }
+
+    private static String normalizeHex(String hex) {
+        return hex == null ? null : Hex.normalize(hex);
+    }
+
     @Override
     public String toString() {
         try {
@@ -42,7 +42,8 @@ public class User extends BaseEntity implements UserDetails {
     @JoinTable(name = TABLE_USER_TRANSACTIONS, 
                joinColumns        = @JoinColumn(name = FIELD_USER_ID, referencedColumnName = FIELD_ID), 
                inverseJoinColumns = @JoinColumn(name = FIELD_TRX_ID, referencedColumnName = FIELD_ID),
-               indexes = {@Index(name = "idx_"+FIELD_USER_ID, columnList = FIELD_USER_ID)})
+               indexes = {@Index(name = "idx_"+FIELD_USER_ID, columnList = FIELD_USER_ID),
+                          @Index(name = "idx_"+FIELD_TRX_ID, columnList = FIELD_TRX_ID)})
     private Set<Transaction> transactions;
 
 	@Override
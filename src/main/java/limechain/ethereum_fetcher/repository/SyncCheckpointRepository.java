@@ -0,0 +1,13 @@
+package limechain.ethereum_fetcher.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import limechain.ethereum_fetcher.model.SyncCheckpoint;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, Long> {
+    Optional<SyncCheckpoint> findByName(String name);
+}
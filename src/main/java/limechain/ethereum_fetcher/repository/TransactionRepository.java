@@ -1,29 +1,165 @@
 package limechain.ethereum_fetcher.repository;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
 import jakarta.transaction.Transactional.TxType;
+import limechain.ethereum_fetcher.model.Finality;
 import limechain.ethereum_fetcher.model.Transaction;
 import limechain.ethereum_fetcher.model.User;
+import limechain.ethereum_fetcher.util.Hex;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     public static final String P_DELIMETER = ",:";
     public static final String COMMA = ",";
+    static final String STREAM_FETCH_SIZE = "500";
 
 	List<Transaction> findByHashIn(List<String> hashes);
 
+    /**
+     * Inserts new transactions in one transaction, flushed as JDBC batches of {@code hibernate.jdbc.batch_size} rows.
+     * A duplicate hash rolls back the whole call.
+     */
     @Transactional(value = TxType.REQUIRES_NEW)
-    default Transaction saveOne(Transaction tx) {
-        return this.save(tx);
+    default List<Transaction> saveAllNew(Iterable<Transaction> transactions) {
+        return this.saveAllAndFlush(transactions);
     }
 
+    /**
+     * Inserts the transactions whose hash is not stored yet, in one transaction. A hash stored concurrently rolls back the
+     * whole call, a retry skips it.
+     *
+     * @return inserted transactions
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    default List<Transaction> saveMissing(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        Set<String> storedHashes = this.findByHashIn(transactions.stream().map(Transaction::getHash).toList()).stream()
+                .map(t -> t.getHash().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<Transaction> missing = transactions.stream().filter(t -> !storedHashes.contains(t.getHash().toLowerCase(Locale.ROOT))).toList();
+        return missing.isEmpty() ? List.of() : this.saveAllAndFlush(missing);
+    }
+
+    /**
+     * Inserts the transactions whose hash is not stored yet and links all of them to the user, in one transaction. Stored
+     * hashes are skipped instead of failing the insert, only a hash stored concurrently between the lookup and the insert
+     * rolls back the whole call, a retry skips it.
+     *
+     * @param userId user to link the transactions to, null links none
+     * @return stored rows of the transactions stored before, then the inserted transactions
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    default List<Transaction> saveMissingAndLink(List<Transaction> transactions, Long userId) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+        List<Transaction> result = new ArrayList<>(this.findByHashIn(transactions.stream().map(Transaction::getHash).toList()));
+        Set<String> storedHashes = result.stream().map(t -> Hex.normalize(t.getHash())).collect(Collectors.toSet());
+        List<Transaction> missing = transactions.stream().filter(t -> !storedHashes.contains(Hex.normalize(t.getHash()))).toList();
+        if (!missing.isEmpty()) {
+            result.addAll(this.saveAllAndFlush(missing));
+        }
+        if (userId != null) {
+            this.insertUserLinks(userId, result.stream().map(Transaction::getId).toList());
+        }
+        return result;
+    }
+
+    /**
+     * Transactions of the finality in blocks up to the number, oldest blocks first.
+     */
+    List<Transaction> findByFinalityAndBlockNumberLessThanEqualOrderByBlockNumberAsc(Finality finality, BigInteger blockNumber, Pageable pageable);
+
+    /**
+     * Transactions of the finality in the blocks between the numbers, both inclusive.
+     */
+    List<Transaction> findByFinalityAndBlockNumberBetween(Finality finality, BigInteger fromBlockNumber, BigInteger toBlockNumber);
+
+    List<Transaction> findByFinalityAndIdGreaterThanOrderByIdAsc(Finality finality, Long afterId, Pageable pageable);
+
     @Query("SELECT u.transactions FROM User u WHERE u = :user")
     List<Transaction> findTransactionsByUser(@Param("user") User user);
 
+    List<Transaction> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("SELECT t FROM User u JOIN u.transactions t WHERE u.id = :userId AND t.id > :afterId ORDER BY t.id")
+    List<Transaction> findTransactionsByUserAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Streams all transactions ordered by id from a forward-only cursor. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT t FROM Transaction t ORDER BY t.id")
+    Stream<Transaction> streamAll();
+
+    /**
+     * Streams the transactions of the user ordered by id from a forward-only cursor. Must be consumed inside a transaction
+     * and closed.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT t FROM User u JOIN u.transactions t WHERE u.id = :userId ORDER BY t.id")
+    Stream<Transaction> streamByUser(@Param("userId") Long userId);
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT t.hash FROM Transaction t")
+    Stream<String> streamHashes();
+
+    /**
+     * Hands the hashes of all stored transactions over to the action, read from a forward-only cursor.
+     *
+     * @return number of hashes
+     */
+    @Transactional(value = TxType.REQUIRES_NEW)
+    default long forEachHash(Consumer<String> action) {
+        long count = 0;
+        try (Stream<String> hashes = streamHashes()) {
+            Iterator<String> iterator = hashes.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Links the transactions to the user, skipping the links which already exist.
+     *
+     * @return number of inserted links
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO user_transactions (user_id, trx_id) SELECT :userId, t.id FROM transaction t WHERE t.id IN (:trxIds)"
+            + " AND NOT EXISTS (SELECT 1 FROM user_transactions ut WHERE ut.user_id = :userId AND ut.trx_id = t.id)")
+    int insertUserLinks(@Param("userId") Long userId, @Param("trxIds") Collection<Long> trxIds);
+
+    @Transactional(value = TxType.REQUIRES_NEW)
+    default int linkToUser(Long userId, Collection<Long> trxIds) {
+        return this.insertUserLinks(userId, trxIds);
+    }
+
 }
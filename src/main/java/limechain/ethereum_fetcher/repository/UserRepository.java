@@ -3,6 +3,8 @@ package limechain.ethereum_fetcher.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import limechain.ethereum_fetcher.model.User;
@@ -11,4 +13,7 @@ import limechain.ethereum_fetcher.model.User;
 public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByUsername(String username);
 
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
 }
\ No newline at end of file
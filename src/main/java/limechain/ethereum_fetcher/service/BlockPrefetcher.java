@@ -0,0 +1,149 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import limechain.ethereum_fetcher.config.NodeFetchConfiguration;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prefetches the whole blocks of transactions fetched on a miss, so later lookups of other transactions of the same
+ * blocks are served from the DB or the cache.
+ *
+ * Enabled by {@code ethereum.node.block-prefetch.enabled}. Only blocks at most {@code ethereum.node.block-prefetch.max-age-blocks}
+ * behind the chain head and with at most {@code ethereum.node.block-prefetch.max-transactions} transactions are prefetched.
+ * Prefetch runs in the background and stores the missing transactions of a block in one bulk insert. Every block is
+ * prefetched once, a block whose prefetch failed may be prefetched again on the next miss.
+ */
+@Service
+@Slf4j
+public class BlockPrefetcher {
+
+    private static final String ENABLED = "${ethereum.node.block-prefetch.enabled:false}";
+    private static final String MAX_AGE_BLOCKS = "${ethereum.node.block-prefetch.max-age-blocks:128}";
+    private static final String MAX_TRANSACTIONS = "${ethereum.node.block-prefetch.max-transactions:500}";
+    private static final int PREFETCHED_BLOCKS = 10000;
+    private static final long PREFETCHED_BLOCKS_TTL_HOURS = 1;
+    private static final String METRIC_PREFETCHED = "transactions.prefetched";
+
+    private final BlockchainService blockchainService;
+    private final TransactionRepository repository;
+    private final TransactionCache cache;
+    private final StoredHashFilter storedHashes;
+    private final NotFoundCache notFoundCache;
+    private final Executor executor;
+    private final boolean enabled;
+    private final BigInteger maxAgeBlocks;
+    private final int maxTransactions;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Boolean> prefetchedBlocks = Caffeine.newBuilder()
+            .maximumSize(PREFETCHED_BLOCKS)
+            .expireAfterWrite(PREFETCHED_BLOCKS_TTL_HOURS, TimeUnit.HOURS)
+            .build();
+
+    public BlockPrefetcher(BlockchainService blockchainService, TransactionRepository repository, TransactionCache cache, StoredHashFilter storedHashes,
+            NotFoundCache notFoundCache, @Qualifier(NodeFetchConfiguration.BLOCK_PREFETCH_EXECUTOR) Executor executor, @Value(ENABLED) boolean enabled,
+            @Value(MAX_AGE_BLOCKS) long maxAgeBlocks, @Value(MAX_TRANSACTIONS) int maxTransactions, MeterRegistry meterRegistry) {
+        this.blockchainService = blockchainService;
+        this.repository = repository;
+        this.cache = cache;
+        this.storedHashes = storedHashes;
+        this.notFoundCache = notFoundCache;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.maxAgeBlocks = BigInteger.valueOf(maxAgeBlocks);
+        this.maxTransactions = maxTransactions;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Schedules the prefetch of the blocks of the transactions fetched from the node, does nothing when disabled.
+     */
+    public void prefetchBlocksOf(Collection<Transaction> fetchedTransactions) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, BigInteger> blocks = new LinkedHashMap<>();
+        for (Transaction t : fetchedTransactions) {
+            if (t.getBlockHash() != null && t.getBlockNumber() != null) {
+                blocks.putIfAbsent(TransactionCache.normalize(t.getBlockHash()), t.getBlockNumber());
+            }
+        }
+        blocks.keySet().removeIf(blockHash -> prefetchedBlocks.asMap().putIfAbsent(blockHash, Boolean.TRUE) != null);
+        if (blocks.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> prefetch(blocks));
+        } catch (RejectedExecutionException e) {
+            log.debug("Prefetch queue is full, skipping {} blocks", blocks.size());
+            prefetchedBlocks.invalidateAll(blocks.keySet());
+        }
+    }
+
+    void prefetch(Map<String, BigInteger> blocks) {
+        BigInteger head;
+        try {
+            head = blockchainService.getBlockNumber();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to get the block number from node, reason: {}", e.getMessage());
+            prefetchedBlocks.invalidateAll(blocks.keySet());
+            return;
+        }
+
+        for (Map.Entry<String, BigInteger> block : blocks.entrySet()) {
+            if (head.subtract(block.getValue()).compareTo(maxAgeBlocks) > 0) {
+                log.debug("Block {} is older than {} blocks, not prefetched", block.getValue(), maxAgeBlocks);
+                continue;
+            }
+            try {
+                List<Transaction> transactions = blockchainService.getBlockTransactions(block.getValue(), block.getKey(), maxTransactions);
+                int stored = store(transactions);
+                log.debug("Prefetched block {}, stored {} of its {} transactions", block.getValue(), stored, transactions.size());
+            } catch (IOException | TransactionException | RuntimeException e) {
+                log.warn("Failed to prefetch block {}, reason: {}", block.getValue(), e.getMessage());
+                prefetchedBlocks.invalidate(block.getKey());
+            }
+        }
+    }
+
+    /**
+     * Inserts the transactions which are not stored yet in one batch.
+     *
+     * @return number of inserted transactions
+     */
+    private int store(List<Transaction> transactions) {
+        List<Transaction> missing;
+        try {
+            missing = repository.saveMissing(transactions);
+        } catch (DataIntegrityViolationException de) {
+            // a concurrent lookup stored some of them, the rest is fetched on demand
+            log.debug("Prefetched transactions stored concurrently, reason: {}", de.getMessage());
+            return 0;
+        }
+        cache.putAll(missing);
+        storedHashes.putAll(missing);
+        notFoundCache.invalidateAll(missing);
+        meterRegistry.counter(METRIC_PREFETCHED).increment(missing.size());
+        return missing.size();
+    }
+}
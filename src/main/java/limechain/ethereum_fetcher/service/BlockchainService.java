@@ -0,0 +1,465 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import limechain.ethereum_fetcher.config.NodeFetchConfiguration;
+import limechain.ethereum_fetcher.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches transactions and their receipts from the Ethereum nodes of the {@link NodePool}.
+ *
+ * Missing hashes are packed into JSON-RPC batch requests of at most {@code ethereum.node.batch-size} calls, responses are
+ * correlated back to hashes by request id. Nodes which answer a batch with a single object instead of an array are switched
+ * to per-call mode, a batch failed otherwise is retried per call.
+ *
+ * Batches (or single hashes in per-call mode) are fetched in parallel on the node fetch executor, the number of
+ * concurrent HTTP requests to every node is limited by the {@link NodePool}. Hashes which could not be fetched within
+ * {@code ethereum.node.fetch-timeout-ms}, failed or found the fetch executor queue full are reported instead of failing
+ * the whole lookup.
+ *
+ * Every request to the nodes is timed by {@value #METRIC_REQUESTS} per JSON-RPC method.
+ *
+ * Whole blocks are fetched with full transactions and the receipts of the block by {@value #METHOD_GET_BLOCK_RECEIPTS}.
+ * Nodes which do not implement it are switched to receipts per transaction.
+ *
+ * Receipts are decoded as {@link ReceiptSummary}, without materializing their logs.
+ */
+@Service
+@Slf4j
+public class BlockchainService {
+
+    private static final String ETHEREUM_NODE_BATCH_SIZE = "${ethereum.node.batch-size:50}";
+    private static final String ETHEREUM_NODE_FETCH_TIMEOUT_MS = "${ethereum.node.fetch-timeout-ms:10000}";
+    private static final String METRIC_REQUESTS = "ethereum.node.requests";
+    private static final String METRIC_BATCH_SIZE = "ethereum.node.batch.size";
+    private static final String METRIC_FAILED_HASHES = "ethereum.node.failed.hashes";
+    private static final String TAG_METHOD = "method";
+    private static final String TAG_BATCH = "batch";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String METHOD_UNKNOWN = "unknown";
+    private static final String METHOD_GET_BLOCK_RECEIPTS = "eth_getBlockReceipts";
+    private static final String METHOD_GET_TRANSACTION_RECEIPT = "eth_getTransactionReceipt";
+    private static final int METHOD_NOT_FOUND = -32601;
+
+    private final NodePool nodePool;
+    private final Web3j web3j;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final long fetchTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> batchSizes = new ConcurrentHashMap<>();
+    private volatile boolean batchSupported;
+    private volatile boolean blockReceiptsSupported = true;
+
+    public BlockchainService(NodePool nodePool, @Value(ETHEREUM_NODE_BATCH_SIZE) int batchSize,
+            @Qualifier(NodeFetchConfiguration.NODE_FETCH_EXECUTOR) ExecutorService executor,
+            @Value(ETHEREUM_NODE_FETCH_TIMEOUT_MS) long fetchTimeoutMs, MeterRegistry meterRegistry) {
+        this.nodePool = nodePool;
+        this.web3j = Web3j.build(nodePool);
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.fetchTimeoutMs = fetchTimeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.batchSupported = batchSize > 1;
+    }
+
+    public FetchResult getTransactions(Collection<String> transactionHashes) {
+        return getTransactions(transactionHashes, transactions -> {
+        });
+    }
+
+    /**
+     * Same as {@link #getTransactions(Collection)}, besides the transactions of every batch (or single hash in per-call
+     * mode) are handed over to {@code onFetched} on the calling thread as soon as the batch completes, in the order the
+     * batches complete. When {@code onFetched} throws, the pending batches are cancelled.
+     */
+    public FetchResult getTransactions(Collection<String> transactionHashes, Consumer<List<Transaction>> onFetched) {
+        List<String> hashes = new ArrayList<>(transactionHashes);
+        int chunkSize = batchSupported ? batchSize : 1;
+
+        CompletionService<List<Transaction>> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<List<Transaction>>, List<String>> pending = new HashMap<>();
+        Set<String> failedHashes = new LinkedHashSet<>();
+        for (int from = 0; from < hashes.size(); from += chunkSize) {
+            List<String> chunk = hashes.subList(from, Math.min(from + chunkSize, hashes.size()));
+            try {
+                pending.put(completion.submit(() -> fetchChunk(chunk)), chunk);
+            } catch (RejectedExecutionException e) {
+                failedHashes.addAll(chunk);
+            }
+        }
+        if (!failedHashes.isEmpty()) {
+            log.warn("Node fetch queue is full, {} hashes not fetched", failedHashes.size());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fetchTimeoutMs);
+        List<Transaction> transactions = new ArrayList<>();
+        try {
+            while (!pending.isEmpty()) {
+                Future<List<Transaction>> future = completion.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    log.warn("Timed out after {} ms fetching {} hashes from node", fetchTimeoutMs, pending.values().stream().mapToInt(List::size).sum());
+                    break;
+                }
+                List<String> chunk = pending.remove(future);
+                try {
+                    List<Transaction> fetched = future.get();
+                    transactions.addAll(fetched);
+                    onFetched.accept(fetched);
+                } catch (ExecutionException e) {
+                    log.warn("Failed to fetch {} hashes from node, reason: {}", chunk.size(), e.getCause().getMessage());
+                    failedHashes.addAll(chunk);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.forEach((future, chunk) -> {
+                future.cancel(true);
+                failedHashes.addAll(chunk);
+            });
+        }
+        meterRegistry.counter(METRIC_FAILED_HASHES).increment(failedHashes.size());
+        return new FetchResult(transactions, failedHashes);
+    }
+
+    public long getFetchTimeoutMs() {
+        return fetchTimeoutMs;
+    }
+
+    boolean isBatchSupported() {
+        return batchSupported;
+    }
+
+    boolean isBlockReceiptsSupported() {
+        return blockReceiptsSupported;
+    }
+
+    /**
+     * @return number of the most recent block of the node
+     */
+    public BigInteger getBlockNumber() throws IOException {
+        return send(web3j.ethBlockNumber()).getBlockNumber();
+    }
+
+    /**
+     * Takes the hashes of the blocks at the numbers from the current chain, in batches when supported.
+     *
+     * @return hashes by block number, numbers unknown to the node or failed are absent
+     */
+    public Map<BigInteger, String> getBlockHashes(Collection<BigInteger> blockNumbers) throws IOException {
+        List<BigInteger> numbers = new ArrayList<>(blockNumbers);
+        Map<BigInteger, String> hashes = new HashMap<>();
+        for (int from = 0; from < numbers.size(); from += batchSize) {
+            List<BigInteger> chunk = numbers.subList(from, Math.min(from + batchSize, numbers.size()));
+            Map<BigInteger, EthBlock> blocks;
+            if (chunk.size() > 1 && batchSupported) {
+                blocks = sendBatch(chunk, number -> web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(number), false));
+            } else {
+                blocks = new HashMap<>();
+                for (BigInteger number : chunk) {
+                    blocks.put(number, send(web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(number), false)));
+                }
+            }
+            blocks.forEach((number, block) -> {
+                if (block.getBlock() != null) {
+                    hashes.put(number, block.getBlock().getHash());
+                }
+            });
+        }
+        return hashes;
+    }
+
+    /**
+     * Fetches all transactions of the block with their receipts.
+     *
+     * @param blockHash expected hash of the block, the block at the number may have been replaced by a reorg
+     * @return transactions of the block which have a receipt, empty if the node does not know the block, its hash
+     *         differs from {@code blockHash} or it holds more than {@code maxTransactions} transactions
+     */
+    public List<Transaction> getBlockTransactions(BigInteger blockNumber, String blockHash, int maxTransactions) throws IOException, TransactionException {
+        FetchedBlock block = fetchBlock(blockNumber, blockHash, maxTransactions);
+        return block == null ? List.of() : block.getTransactions();
+    }
+
+    /**
+     * Fetches the block with all its transactions which have a receipt.
+     *
+     * @return the block, null if the node does not know it yet
+     */
+    public FetchedBlock getBlock(BigInteger blockNumber) throws IOException, TransactionException {
+        return fetchBlock(blockNumber, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param blockHash expected hash of the block, null accepts any
+     */
+    private FetchedBlock fetchBlock(BigInteger blockNumber, String blockHash, int maxTransactions) throws IOException, TransactionException {
+        DefaultBlockParameter blockParameter = DefaultBlockParameter.valueOf(blockNumber);
+        EthBlock.Block block = send(web3j.ethGetBlockByNumber(blockParameter, true)).getBlock();
+        if (block == null || (blockHash != null && !blockHash.equalsIgnoreCase(block.getHash()))) {
+            log.debug("Block {} with hash {} is not known to node", blockNumber, blockHash);
+            return null;
+        }
+        if (block.getTransactions().size() > maxTransactions) {
+            log.debug("Block {} holds {} transactions, more than {}", blockNumber, block.getTransactions().size(), maxTransactions);
+            return null;
+        }
+
+        List<org.web3j.protocol.core.methods.response.Transaction> blockTransactions = new ArrayList<>();
+        block.getTransactions().forEach(result -> blockTransactions.add((org.web3j.protocol.core.methods.response.Transaction) result.get()));
+        Map<String, ReceiptSummary> receipts = blockTransactions.isEmpty() ? Map.of() : getBlockReceipts(blockParameter, blockTransactions);
+
+        List<Transaction> transactions = new ArrayList<>(blockTransactions.size());
+        for (org.web3j.protocol.core.methods.response.Transaction tx : blockTransactions) {
+            ReceiptSummary receipt = receipts.get(tx.getHash().toLowerCase(Locale.ROOT));
+            if (receipt == null) {
+                receipt = getReceipt(tx.getHash());
+            }
+            if (receipt != null) {
+                transactions.add(toEthereumTransaction(tx, receipt));
+            } else {
+                // a mined transaction always has a receipt, leave it to be fetched on demand
+                log.debug("Node returned no receipt for transaction {} of block {}", tx.getHash(), blockNumber);
+            }
+        }
+        return new FetchedBlock(block.getNumber(), block.getHash(), block.getParentHash(), transactions);
+    }
+
+    /**
+     * @return receipts of the block by lower-cased transaction hash
+     */
+    private Map<String, ReceiptSummary> getBlockReceipts(DefaultBlockParameter blockParameter,
+            List<org.web3j.protocol.core.methods.response.Transaction> blockTransactions) throws IOException {
+        Map<String, ReceiptSummary> receipts = new HashMap<>();
+        if (blockReceiptsSupported) {
+            BlockReceipts response = send(new Request<>(METHOD_GET_BLOCK_RECEIPTS, List.of(blockParameter.getValue()), nodePool, BlockReceipts.class));
+            if (!response.hasError()) {
+                if (response.getResult() != null) {
+                    response.getResult().forEach(receipt -> receipts.put(receipt.getTransactionHash().toLowerCase(Locale.ROOT), receipt));
+                }
+                return receipts;
+            }
+            if (response.getError().getCode() == METHOD_NOT_FOUND) {
+                log.warn("Node does not support {}, switching to receipts per transaction", METHOD_GET_BLOCK_RECEIPTS);
+                blockReceiptsSupported = false;
+            } else {
+                log.debug("Node returned error for {}: {}", METHOD_GET_BLOCK_RECEIPTS, response.getError().getMessage());
+            }
+        }
+
+        List<String> hashes = blockTransactions.stream().map(org.web3j.protocol.core.methods.response.Transaction::getHash).toList();
+        for (int from = 0; from < hashes.size(); from += batchSize) {
+            List<String> chunk = hashes.subList(from, Math.min(from + batchSize, hashes.size()));
+            if (chunk.size() > 1 && batchSupported) {
+                sendBatch(chunk, this::receiptRequest).forEach((hash, receipt) -> {
+                    if (receipt.getResult() != null) {
+                        receipts.put(hash.toLowerCase(Locale.ROOT), receipt.getResult());
+                    }
+                });
+            } else {
+                for (String hash : chunk) {
+                    ReceiptSummary receipt = getReceipt(hash);
+                    if (receipt != null) {
+                        receipts.put(hash.toLowerCase(Locale.ROOT), receipt);
+                    }
+                }
+            }
+        }
+        return receipts;
+    }
+
+    private List<Transaction> fetchChunk(List<String> chunk) throws IOException, TransactionException {
+        if (chunk.size() > 1 && batchSupported) {
+            try {
+                return getInBatch(chunk);
+            } catch (NodePool.BatchNotSupportedException e) {
+                log.warn("Node rejected batch request, switching to per-call mode, reason: {}", e.getMessage());
+                batchSupported = false;
+            } catch (IOException | RuntimeException e) {
+                // a transient failure, later chunks are still sent in batches
+                log.warn("Batch request failed, retrying {} hashes in per-call mode, reason: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return getOneByOne(chunk);
+    }
+
+    private List<Transaction> getInBatch(List<String> transactionHashes) throws IOException, TransactionException {
+        Map<String, EthTransaction> ethTransactions = sendBatch(transactionHashes, web3j::ethGetTransactionByHash);
+
+        Map<String, org.web3j.protocol.core.methods.response.Transaction> found = new HashMap<>();
+        Set<String> retryHashes = new LinkedHashSet<>();
+        for (String txHash : transactionHashes) {
+            EthTransaction ethTransaction = ethTransactions.get(txHash);
+            if (ethTransaction == null) {
+                retryHashes.add(txHash);
+            } else {
+                ethTransaction.getTransaction().ifPresent(tx -> found.put(txHash, tx));
+            }
+        }
+
+        Map<String, ReceiptSummaryResponse> receipts = found.isEmpty() ? Map.of() : sendBatch(found.keySet(), this::receiptRequest);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (Map.Entry<String, org.web3j.protocol.core.methods.response.Transaction> entry : found.entrySet()) {
+            ReceiptSummaryResponse receipt = receipts.get(entry.getKey());
+            ReceiptSummary txReceipt = receipt != null ? receipt.getResult() : getReceipt(entry.getValue().getHash());
+            transactions.add(toEthereumTransaction(entry.getValue(), txReceipt));
+        }
+        if (!retryHashes.isEmpty()) {
+            log.debug("Node returned no batch response for {} hashes, fetching them one by one", retryHashes.size());
+            transactions.addAll(getOneByOne(retryHashes));
+        }
+        return transactions;
+    }
+
+    /**
+     * Sends one batch with a request per key (a hash or a block number), all requests of the batch being of the same type.
+     * Keys whose response is missing or carries an error are absent from the result.
+     */
+    @SuppressWarnings("unchecked")
+    private <K, T extends Response<?>> Map<K, T> sendBatch(Collection<K> keys, Function<K, Request<?, T>> requestFactory) throws IOException {
+        Map<Long, K> keyById = new HashMap<>();
+        BatchRequest batch = web3j.newBatch();
+        for (K key : keys) {
+            Request<?, T> request = requestFactory.apply(key);
+            keyById.put(request.getId(), key);
+            batch.add(request);
+        }
+
+        Map<K, T> responses = new HashMap<>();
+        for (Response<?> response : send(batch).getResponses()) {
+            K key = keyById.get(response.getId());
+            if (key == null) {
+                continue;
+            }
+            if (response.hasError()) {
+                log.debug("Node returned error for {}: {}", key, response.getError().getMessage());
+            } else {
+                responses.put(key, (T) response);
+            }
+        }
+        return responses;
+    }
+
+    private List<Transaction> getOneByOne(Collection<String> transactionHashes) throws IOException, TransactionException {
+        List<Transaction> transactions = new ArrayList<>();
+        for (String txHash : transactionHashes) {
+            org.web3j.protocol.core.methods.response.Transaction tx = send(web3j.ethGetTransactionByHash(txHash)).getTransaction().orElse(null);
+            if (tx != null) {
+                transactions.add(toEthereumTransaction(tx, getReceipt(tx.getHash())));
+            }
+        }
+        return transactions;
+    }
+
+    private ReceiptSummary getReceipt(String txHash) throws IOException {
+        return send(receiptRequest(txHash)).getResult();
+    }
+
+    private Request<?, ReceiptSummaryResponse> receiptRequest(String txHash) {
+        return new Request<>(METHOD_GET_TRANSACTION_RECEIPT, List.of(txHash), nodePool, ReceiptSummaryResponse.class);
+    }
+
+    private <T extends Response<?>> T send(Request<?, T> request) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            T response = request.send();
+            outcome = OUTCOME_SUCCESS;
+            return response;
+        } finally {
+            sample.stop(requestTimer(request.getMethod(), false, outcome));
+        }
+    }
+
+    private BatchResponse send(BatchRequest batch) throws IOException {
+        String method = Objects.requireNonNullElse(batch.getRequests().get(0).getMethod(), METHOD_UNKNOWN);
+        batchSizes.computeIfAbsent(method, m -> DistributionSummary.builder(METRIC_BATCH_SIZE).tag(TAG_METHOD, m).register(meterRegistry))
+                .record(batch.getRequests().size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            BatchResponse response = batch.send();
+            outcome = OUTCOME_SUCCESS;
+            return response;
+        } finally {
+            sample.stop(requestTimer(method, true, outcome));
+        }
+    }
+
+    /**
+     * Latency of the HTTP requests to the node, a batch request is tagged with the method of its calls. Every timer is
+     * built once.
+     */
+    private Timer requestTimer(String method, boolean batch, String outcome) {
+        String tagMethod = Objects.requireNonNullElse(method, METHOD_UNKNOWN);
+        return requestTimers.computeIfAbsent(tagMethod + ' ' + batch + ' ' + outcome, key -> Timer.builder(METRIC_REQUESTS)
+                .tag(TAG_METHOD, tagMethod)
+                .tag(TAG_BATCH, String.valueOf(batch))
+                .tag(TAG_OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Response of {@value #METHOD_GET_BLOCK_RECEIPTS}, null result for an unknown block.
+     */
+    public static class BlockReceipts extends Response<List<ReceiptSummary>> {
+    }
+
+    /**
+     * Response of {@value #METHOD_GET_TRANSACTION_RECEIPT}, null result for an unknown or pending transaction.
+     */
+    public static class ReceiptSummaryResponse extends Response<ReceiptSummary> {
+    }
+
+    static Transaction toEthereumTransaction(org.web3j.protocol.core.methods.response.Transaction tx, ReceiptSummary txReceipt)
+            throws IOException, TransactionException {
+        boolean transactionStatus = txReceipt != null && txReceipt.isStatusOK() ? true : false;
+        int logsCount = txReceipt != null ? txReceipt.getLogsCount() : 0;
+        String contractAddress = txReceipt != null && txReceipt.getContractAddress() != null ? txReceipt.getContractAddress() : tx.getCreates();
+        return new Transaction(tx.getHash(), transactionStatus, tx.getBlockHash(), tx.getBlockNumber(), tx.getFrom(), tx.getTo(), contractAddress, logsCount,
+                tx.getInput(), tx.getValue(), null);
+    }
+}
@@ -0,0 +1,192 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.SyncCheckpoint;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.SyncCheckpointRepository;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Follows the chain head and stores the transactions of every new block ahead of the lookups.
+ *
+ * Enabled by {@code ethereum.follower.enabled}, on a single instance. Every {@code ethereum.follower.poll-interval-ms}
+ * the head is taken by {@code eth_blockNumber} and up to {@code ethereum.follower.max-blocks-per-poll} blocks after the
+ * checkpoint are fetched with their receipts, oldest first. The missing transactions of a block are stored in one bulk
+ * insert, then the checkpoint moves to the block. A block stored before a crash and not checkpointed is stored again
+ * after the restart without duplicates.
+ *
+ * Without a checkpoint the follower starts at {@code ethereum.follower.start-block}, negative starts at the head. A block
+ * whose parent is not the checkpointed block means a reorg, the checkpoint then rewinds by
+ * {@code ethereum.follower.reorg-rewind-blocks} and the next poll follows from there. The final transactions of the
+ * rewound blocks become provisional, so that the {@link FinalityVerifier} checks their block again, and transactions
+ * stored before with another block take the block of the current chain when it is followed again.
+ */
+@Service
+@ConditionalOnProperty(name = "ethereum.follower.enabled", havingValue = "true")
+@Slf4j
+public class ChainFollower {
+
+    static final String CHECKPOINT_NAME = "chain-follower";
+    private static final String POLL_INTERVAL_MS = "${ethereum.follower.poll-interval-ms:4000}";
+    private static final String START_BLOCK = "${ethereum.follower.start-block:-1}";
+    private static final String MAX_BLOCKS_PER_POLL = "${ethereum.follower.max-blocks-per-poll:100}";
+    private static final String REORG_REWIND_BLOCKS = "${ethereum.follower.reorg-rewind-blocks:12}";
+    private static final String METRIC_BLOCKS = "ethereum.follower.blocks";
+    private static final String METRIC_TRANSACTIONS = "ethereum.follower.transactions";
+    private static final String METRIC_LAG = "ethereum.follower.lag";
+
+    private final BlockchainService blockchainService;
+    private final TransactionRepository repository;
+    private final SyncCheckpointRepository checkpoints;
+    private final TransactionCache cache;
+    private final StoredHashFilter storedHashes;
+    private final NotFoundCache notFoundCache;
+    private final long startBlock;
+    private final int maxBlocksPerPoll;
+    private final BigInteger reorgRewindBlocks;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong lag;
+
+    public ChainFollower(BlockchainService blockchainService, TransactionRepository repository, SyncCheckpointRepository checkpoints, TransactionCache cache,
+            StoredHashFilter storedHashes, NotFoundCache notFoundCache, @Value(START_BLOCK) long startBlock, @Value(MAX_BLOCKS_PER_POLL) int maxBlocksPerPoll,
+            @Value(REORG_REWIND_BLOCKS) long reorgRewindBlocks, MeterRegistry meterRegistry) {
+        this.blockchainService = blockchainService;
+        this.repository = repository;
+        this.checkpoints = checkpoints;
+        this.cache = cache;
+        this.storedHashes = storedHashes;
+        this.notFoundCache = notFoundCache;
+        this.startBlock = startBlock;
+        this.maxBlocksPerPoll = maxBlocksPerPoll;
+        this.reorgRewindBlocks = BigInteger.valueOf(reorgRewindBlocks);
+        this.meterRegistry = meterRegistry;
+        this.lag = meterRegistry.gauge(METRIC_LAG, new AtomicLong());
+    }
+
+    @Scheduled(fixedDelayString = POLL_INTERVAL_MS)
+    public void poll() {
+        try {
+            int followed = follow();
+            if (followed > 0) {
+                log.debug("Followed {} blocks", followed);
+            }
+        } catch (IOException | TransactionException | RuntimeException e) {
+            log.warn("Failed to follow the chain, reason: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of blocks stored
+     */
+    int follow() throws IOException, TransactionException {
+        BigInteger head = blockchainService.getBlockNumber();
+        SyncCheckpoint checkpoint = checkpoints.findByName(CHECKPOINT_NAME).orElseGet(() -> new SyncCheckpoint(CHECKPOINT_NAME, start(head), null));
+
+        int followed = 0;
+        while (followed < maxBlocksPerPoll && checkpoint.getBlockNumber().compareTo(head) < 0) {
+            BigInteger blockNumber = checkpoint.getBlockNumber().add(BigInteger.ONE);
+            FetchedBlock block = blockchainService.getBlock(blockNumber);
+            if (block == null) {
+                log.debug("Block {} is not known to node yet", blockNumber);
+                break;
+            }
+            if (checkpoint.getBlockHash() != null && !checkpoint.getBlockHash().equalsIgnoreCase(block.getParentHash())) {
+                BigInteger rewindTo = checkpoint.getBlockNumber().subtract(reorgRewindBlocks).max(BigInteger.ONE.negate());
+                log.warn("Block {} does not follow the checkpointed block, reorg, rewinding to block {}", blockNumber, rewindTo);
+                demote(rewindTo.add(BigInteger.ONE), checkpoint.getBlockNumber());
+                checkpoint.moveTo(rewindTo, null);
+                checkpoint = checkpoints.save(checkpoint);
+                break;
+            }
+
+            List<Transaction> stored;
+            try {
+                stored = repository.saveMissing(block.getTransactions());
+            } catch (DataIntegrityViolationException de) {
+                // a concurrent lookup stored some of them, the block is fetched again on the next poll
+                log.debug("Transactions of block {} stored concurrently, reason: {}", blockNumber, de.getMessage());
+                break;
+            }
+            cache.putAll(stored);
+            storedHashes.putAll(stored);
+            notFoundCache.invalidateAll(stored);
+            if (stored.size() < block.getTransactions().size()) {
+                moveToBlock(block, stored);
+            }
+            checkpoint.moveTo(block.getNumber(), block.getHash());
+            checkpoint = checkpoints.save(checkpoint);
+            meterRegistry.counter(METRIC_BLOCKS).increment();
+            meterRegistry.counter(METRIC_TRANSACTIONS).increment(stored.size());
+            log.debug("Stored {} of {} transactions of block {}", stored.size(), block.getTransactions().size(), blockNumber);
+            followed++;
+        }
+        lag.set(head.subtract(checkpoint.getBlockNumber()).max(BigInteger.ZERO).longValue());
+        return followed;
+    }
+
+    /**
+     * Final transactions of the blocks between the numbers become provisional and are evicted from the cache.
+     */
+    private void demote(BigInteger fromBlockNumber, BigInteger toBlockNumber) {
+        List<Transaction> demoted = repository.findByFinalityAndBlockNumberBetween(Finality.FINAL, fromBlockNumber, toBlockNumber);
+        if (demoted.isEmpty()) {
+            return;
+        }
+        demoted.forEach(t -> t.setFinality(Finality.PROVISIONAL));
+        repository.saveAll(demoted);
+        demoted.forEach(t -> cache.invalidate(t.getHash()));
+        log.info("{} final transactions of the rewound blocks {} to {} became provisional", demoted.size(), fromBlockNumber, toBlockNumber);
+    }
+
+    /**
+     * Transactions of the block which were stored before with another block, from the orphaned block or by a lookup on
+     * the other chain, take the block of the current chain and become provisional.
+     *
+     * @param inserted transactions of the block inserted just now
+     */
+    private void moveToBlock(FetchedBlock block, List<Transaction> inserted) {
+        Set<String> insertedHashes = inserted.stream().map(t -> TransactionCache.normalize(t.getHash())).collect(Collectors.toSet());
+        Map<String, Transaction> current = new HashMap<>();
+        block.getTransactions().stream().filter(t -> !insertedHashes.contains(TransactionCache.normalize(t.getHash())))
+                .forEach(t -> current.put(TransactionCache.normalize(t.getHash()), t));
+        List<Transaction> moved = repository.findByHashIn(List.copyOf(current.keySet())).stream()
+                .filter(t -> !block.getHash().equalsIgnoreCase(t.getBlockHash()))
+                .toList();
+        if (moved.isEmpty()) {
+            return;
+        }
+        for (Transaction transaction : moved) {
+            FinalityVerifier.update(transaction, current.get(TransactionCache.normalize(transaction.getHash())));
+            transaction.setFinality(Finality.PROVISIONAL);
+        }
+        repository.saveAll(moved);
+        moved.forEach(t -> cache.invalidate(t.getHash()));
+        log.info("{} stored transactions moved to block {}", moved.size(), block.getNumber());
+    }
+
+    /**
+     * @return block before the first block to follow
+     */
+    private BigInteger start(BigInteger head) {
+        BigInteger first = startBlock < 0 ? head : BigInteger.valueOf(startBlock);
+        return first.subtract(BigInteger.ONE);
+    }
+}
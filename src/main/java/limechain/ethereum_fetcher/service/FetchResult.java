@@ -0,0 +1,18 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Transactions found for a lookup together with the hashes which could not be fetched from the node.
+ */
+@Getter
+@AllArgsConstructor
+public class FetchResult {
+    private final Collection<Transaction> transactions;
+    private final Set<String> failedHashes;
+}
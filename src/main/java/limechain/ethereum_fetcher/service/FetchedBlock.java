@@ -0,0 +1,20 @@
+package limechain.ethereum_fetcher.service;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Block fetched from the node with its transactions.
+ */
+@Getter
+@AllArgsConstructor
+public class FetchedBlock {
+    private final BigInteger number;
+    private final String hash;
+    private final String parentHash;
+    private final List<Transaction> transactions;
+}
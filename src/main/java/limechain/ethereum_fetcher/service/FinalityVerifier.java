@@ -0,0 +1,179 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Verifies stored transactions which may still change and promotes them to {@link Finality#FINAL}.
+ *
+ * Every {@code transaction.finality.verify-interval-ms} it takes up to {@code transaction.finality.batch-size}
+ * {@link Finality#PROVISIONAL} transactions with at least {@code transaction.finality.confirmations} confirmations,
+ * oldest blocks first, and compares their block hash with the hash of the block at the same number on the current chain.
+ * Matching ones become final. The others were reorged out and are fetched again by hash, they stay provisional in the
+ * new block or become pending. {@link Finality#PENDING} transactions are fetched again in batches in the order of
+ * their ids, mined ones become provisional.
+ *
+ * Changed transactions are evicted from the cache, final ones are cached as immutable once loaded again.
+ */
+@Service
+@ConditionalOnProperty(name = "transaction.finality.verify.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class FinalityVerifier {
+
+    private static final String VERIFY_INTERVAL_MS = "${transaction.finality.verify-interval-ms:15000}";
+    private static final String CONFIRMATIONS = "${transaction.finality.confirmations:12}";
+    private static final String BATCH_SIZE = "${transaction.finality.batch-size:500}";
+    private static final String METRIC_VERIFIED = "transactions.finality.verified";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final String OUTCOME_FINAL = "final";
+    private static final String OUTCOME_REORGED = "reorged";
+    private static final String OUTCOME_MINED = "mined";
+
+    private final BlockchainService blockchainService;
+    private final TransactionRepository repository;
+    private final TransactionCache cache;
+    private final BigInteger confirmations;
+    private final int batchSize;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong pendingCursor = new AtomicLong();
+
+    public FinalityVerifier(BlockchainService blockchainService, TransactionRepository repository, TransactionCache cache,
+            @Value(CONFIRMATIONS) int confirmations, @Value(BATCH_SIZE) int batchSize, MeterRegistry meterRegistry) {
+        this.blockchainService = blockchainService;
+        this.repository = repository;
+        this.cache = cache;
+        this.confirmations = BigInteger.valueOf(confirmations);
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = VERIFY_INTERVAL_MS, initialDelayString = VERIFY_INTERVAL_MS)
+    public void verify() {
+        try {
+            verifyProvisional();
+            verifyPending();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to verify finality of transactions, reason: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of transactions promoted to final
+     */
+    int verifyProvisional() throws IOException {
+        BigInteger head = blockchainService.getBlockNumber();
+        List<Transaction> provisional = repository.findByFinalityAndBlockNumberLessThanEqualOrderByBlockNumberAsc(Finality.PROVISIONAL,
+                head.subtract(confirmations), PageRequest.ofSize(batchSize));
+        if (provisional.isEmpty()) {
+            return 0;
+        }
+
+        Map<BigInteger, String> canonicalHashes = blockchainService.getBlockHashes(provisional.stream().map(Transaction::getBlockNumber).distinct().toList());
+        List<Transaction> finalized = new ArrayList<>();
+        List<Transaction> reorged = new ArrayList<>();
+        for (Transaction transaction : provisional) {
+            String canonicalHash = canonicalHashes.get(transaction.getBlockNumber());
+            if (canonicalHash == null) {
+                // not answered by the node, verified on the next run
+                continue;
+            }
+            if (canonicalHash.equalsIgnoreCase(transaction.getBlockHash())) {
+                transaction.setFinality(Finality.FINAL);
+                finalized.add(transaction);
+            } else {
+                reorged.add(transaction);
+            }
+        }
+
+        repository.saveAll(finalized);
+        meterRegistry.counter(METRIC_VERIFIED, TAG_OUTCOME, OUTCOME_FINAL).increment(finalized.size());
+        if (!reorged.isEmpty()) {
+            log.info("{} transactions were reorged out of their blocks, fetching them again", reorged.size());
+            List<Transaction> refreshed = refresh(reorged, true);
+            meterRegistry.counter(METRIC_VERIFIED, TAG_OUTCOME, OUTCOME_REORGED).increment(refreshed.size());
+        }
+        log.debug("Verified {} provisional transactions, {} final, {} reorged", provisional.size(), finalized.size(), reorged.size());
+        return finalized.size();
+    }
+
+    /**
+     * @return number of pending transactions mined meanwhile
+     */
+    int verifyPending() {
+        List<Transaction> pending = repository.findByFinalityAndIdGreaterThanOrderByIdAsc(Finality.PENDING, pendingCursor.get(), PageRequest.ofSize(batchSize));
+        // continue after the batch on the next run, from the start once all pending were visited
+        pendingCursor.set(pending.size() < batchSize ? 0 : pending.get(pending.size() - 1).getId());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Transaction> mined = refresh(pending, false);
+        meterRegistry.counter(METRIC_VERIFIED, TAG_OUTCOME, OUTCOME_MINED).increment(mined.size());
+        return mined.size();
+    }
+
+    /**
+     * Fetches the transactions again by hash and stores the ones which changed their block.
+     *
+     * @param dropMissing whether transactions unknown to the node lose their block and become pending
+     * @return changed transactions
+     */
+    private List<Transaction> refresh(Collection<Transaction> stale, boolean dropMissing) {
+        FetchResult fetchResult = blockchainService.getTransactions(stale.stream().map(Transaction::getHash).toList());
+        Map<String, Transaction> fresh = new HashMap<>();
+        fetchResult.getTransactions().forEach(t -> fresh.put(TransactionCache.normalize(t.getHash()), t));
+
+        List<Transaction> changed = new ArrayList<>();
+        for (Transaction transaction : stale) {
+            if (fetchResult.getFailedHashes().contains(transaction.getHash())) {
+                continue;
+            }
+            Transaction current = fresh.get(TransactionCache.normalize(transaction.getHash()));
+            if (current != null && current.getBlockNumber() != null) {
+                update(transaction, current);
+                transaction.setFinality(Finality.PROVISIONAL);
+                changed.add(transaction);
+            } else if (dropMissing) {
+                transaction.setBlockHash(null);
+                transaction.setBlockNumber(null);
+                transaction.setFinality(Finality.PENDING);
+                changed.add(transaction);
+            }
+        }
+        repository.saveAll(changed);
+        changed.forEach(t -> cache.invalidate(t.getHash()));
+        return changed;
+    }
+
+    /**
+     * Takes the block and the receipt data of the transaction as currently fetched from the node.
+     */
+    static void update(Transaction transaction, Transaction current) {
+        transaction.setStatus(current.getStatus());
+        transaction.setBlockHash(current.getBlockHash());
+        transaction.setBlockNumber(current.getBlockNumber());
+        transaction.setFrom(current.getFrom());
+        transaction.setTo(current.getTo());
+        transaction.setContractAddress(current.getContractAddress());
+        transaction.setLogsCount(current.getLogsCount());
+        transaction.setInput(current.getInput());
+        transaction.setValue(current.getValue());
+    }
+}
@@ -0,0 +1,113 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Reads transaction hashes from a request body while it streams, in one of the {@link Format formats}.
+ *
+ * At most {@code maxHashes} hashes are read, the rest of the body is left unread. The hashes are not validated, malformed
+ * ones are skipped by the lookup like in the other endpoints. A body which does not follow the format is rejected with
+ * {@link IllegalArgumentException}.
+ */
+public final class HashStreamReader {
+
+    public enum Format {
+        /** JSON array of hex strings. */
+        JSON,
+        /** Hex strings, one per line, optionally quoted as in newline delimited JSON. */
+        LINES,
+        /** Concatenated raw 32 byte hashes. */
+        BINARY
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_LINE_LENGTH = 256;
+
+    private HashStreamReader() {
+    }
+
+    static List<String> read(InputStream in, Format format, int maxHashes) throws IOException {
+        return switch (format) {
+        case JSON -> readJson(in, maxHashes);
+        case LINES -> readLines(in, maxHashes);
+        case BINARY -> readBinary(in, maxHashes);
+        };
+    }
+
+    private static List<String> readJson(InputStream in, int maxHashes) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of transaction hashes");
+            }
+            JsonToken token;
+            while (hashes.size() < maxHashes && (token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.VALUE_STRING) {
+                    throw new IllegalArgumentException("Expected a transaction hash string at array index " + hashes.size() + ", found " + token);
+                }
+                hashes.add(parser.getText());
+            }
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        return hashes;
+    }
+
+    private static List<String> readLines(InputStream in, int maxHashes) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder(Hex.PREFIX.length() + 2 * Hex.HASH_BYTES + 2);
+        int c;
+        while (hashes.size() < maxHashes && (c = reader.read()) != -1) {
+            if (c == '\n') {
+                addLine(line, hashes);
+            } else if (line.length() == MAX_LINE_LENGTH) {
+                throw new IllegalArgumentException("Line " + (hashes.size() + 1) + " is longer than " + MAX_LINE_LENGTH + " characters");
+            } else {
+                line.append((char) c);
+            }
+        }
+        if (hashes.size() < maxHashes) {
+            addLine(line, hashes);
+        }
+        return hashes;
+    }
+
+    private static void addLine(StringBuilder line, List<String> hashes) {
+        String hash = line.toString().strip();
+        line.setLength(0);
+        if (hash.length() >= 2 && hash.charAt(0) == '"' && hash.charAt(hash.length() - 1) == '"') {
+            hash = hash.substring(1, hash.length() - 1);
+        }
+        if (!hash.isEmpty()) {
+            hashes.add(hash);
+        }
+    }
+
+    private static List<String> readBinary(InputStream in, int maxHashes) throws IOException {
+        List<String> hashes = new ArrayList<>();
+        byte[] hash = new byte[Hex.HASH_BYTES];
+        int read;
+        while (hashes.size() < maxHashes && (read = in.readNBytes(hash, 0, hash.length)) > 0) {
+            if (read < hash.length) {
+                throw new IllegalArgumentException("Body ends with " + read + " bytes, not a multiple of " + Hex.HASH_BYTES + " byte hashes");
+            }
+            hashes.add(Hex.encode(hash));
+        }
+        return hashes;
+    }
+}
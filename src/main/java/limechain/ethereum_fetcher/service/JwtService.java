@@ -1,26 +1,88 @@
 package limechain.ethereum_fetcher.service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import limechain.ethereum_fetcher.model.User;
 
+/**
+ * Issues and verifies JWT tokens.
+ *
+ * The signing key and the parser are built once. Verified claims are cached by the SHA-256 digest of the token, up to
+ * {@code security.jwt.claims-cache-size} tokens, each until the token expires, so a known token is not parsed again.
+ * Tokens of persisted users carry the user id in claim {@value #CLAIM_USER_ID}.
+ */
 @Service
-public class JwtService {
-	@Value("${security.jwt.secret-key}")
-    String secretKey;
+public class JwtService implements MeterBinder {
+
+    /** Id of the user, absent in tokens issued by older versions. */
+    public static final String CLAIM_USER_ID = "uid";
+    private static final String SECRET_KEY = "${security.jwt.secret-key}";
+    private static final String EXPIRATION_TIME = "${security.jwt.expiration-time}";
+    private static final String CLAIMS_CACHE_SIZE = "${security.jwt.claims-cache-size:10000}";
+    private static final String CLAIMS_CACHE_NAME = "jwt.claims";
+
+    private final long jwtExpiration;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> claimsCache;
+
+    public JwtService(@Value(SECRET_KEY) String secretKey, @Value(EXPIRATION_TIME) long jwtExpiration, @Value(CLAIMS_CACHE_SIZE) long claimsCacheSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long ttlMs = expiration == null ? jwtExpiration : expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
 
-    @Value("${security.jwt.expiration-time}")
-    long jwtExpiration;
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, claimsCache, CLAIMS_CACHE_NAME);
+    }
 
 	public String extractUsername(String token) {
 		return extractClaim(token, Claims::getSubject);
@@ -40,31 +102,64 @@ public class JwtService {
 	}
 
     private String buildToken(UserDetails userDetails, long expiration) {
-        return Jwts.builder().setSubject(userDetails.getUsername())
+        JwtBuilder builder = Jwts.builder().setSubject(userDetails.getUsername())
 				.setIssuedAt(new Date(System.currentTimeMillis()))
-				.setExpiration(new Date(System.currentTimeMillis() + expiration))
-				.signWith(getSignInKey(), SignatureAlgorithm.HS256).compact();
+				.setExpiration(new Date(System.currentTimeMillis() + expiration));
+        if (userDetails instanceof User user && user.getId() != null) {
+            builder.claim(CLAIM_USER_ID, user.getId());
+        }
+        return builder.signWith(signInKey, SignatureAlgorithm.HS256).compact();
 	}
 
 	public boolean isTokenValid(String token, UserDetails userDetails) {
-		final String username = extractUsername(token);
-		return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+		return isTokenValid(extractAllClaims(token), userDetails);
 	}
 
-	private boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date());
-	}
+    /**
+     * @param claims verified claims of the token, see {@link #extractAllClaims(String)}
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && isTokenValid(claims);
+    }
 
-	private Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
-	}
+    /**
+     * @param claims verified claims of the token, see {@link #extractAllClaims(String)}
+     */
+    public boolean isTokenValid(Claims claims) {
+        return !claims.getExpiration().before(new Date());
+    }
 
-	private Claims extractAllClaims(String token) {
-		return Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parseClaimsJws(token).getBody();
-	}
+    /**
+     * @return id of the user from the verified claims, null for tokens issued without it
+     */
+    public Long extractUserId(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Long.class);
+    }
 
-	private Key getSignInKey() {
-		byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-		return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * @return verified claims of the token, from the cache when the token was verified before
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or its signature does not match
+     */
+	public Claims extractAllClaims(String token) {
+        String digest = digest(token);
+        Claims claims = claimsCache.getIfPresent(digest);
+        if (claims == null) {
+            claims = parseClaims(token);
+            claimsCache.put(digest, claims);
+        }
+        return claims;
 	}
-}
\ No newline at end of file
+
+    Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import limechain.ethereum_fetcher.config.NodeFetchConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+/**
+ * JSON-RPC transport over several Ethereum nodes, configured by {@code ethereum.node.urls} (defaults to
+ * {@code ethereum.node.url}).
+ *
+ * Every call goes to the available node with the lowest EWMA latency weighted by its calls in flight. A node is
+ * unavailable while its circuit breaker is open, after {@code ethereum.node.pool.failure-threshold} consecutive failures
+ * for {@code ethereum.node.pool.open-ms}, then a single trial call decides whether it closes again. Calls to a node are
+ * limited to {@code ethereum.node.pool.rate-limit} per second, 0 is unlimited, and to {@code ethereum.node.max-in-flight}
+ * calls in flight, from the choice of the node until its response is read. A busy node leaves its calls to the others,
+ * a call waits only when all nodes are busy. A failed call is retried on the next node until all nodes were tried.
+ *
+ * When the call is not answered within the p95 latency of the node (at least {@code ethereum.node.pool.hedge-delay-ms})
+ * a duplicate is sent to the next node and the first answer wins. The node calls are reads, so duplicates are harmless.
+ * Hedged calls run on a pool of at most {@code ethereum.node.pool.hedge-threads} threads, a call which finds the pool
+ * busy is not hedged. Calls which are not hedged run on the calling thread. The call which lost the race, and all calls
+ * of a caller which was interrupted meanwhile, are cancelled and their responses closed when they arrive anyway.
+ *
+ * Calls are sent by the shared node HTTP client of {@link NodeFetchConfiguration}. Responses are not buffered, they are
+ * parsed while they stream from the connection, so the latency of a node is the time to its response headers.
+ */
+@Component
+@Slf4j
+public class NodePool extends Service {
+
+    private static final String URLS = "${ethereum.node.urls:${ethereum.node.url}}";
+    private static final String EWMA_ALPHA = "${ethereum.node.pool.ewma-alpha:0.3}";
+    private static final String RATE_LIMIT = "${ethereum.node.pool.rate-limit:0}";
+    private static final String MAX_IN_FLIGHT = "${ethereum.node.max-in-flight:8}";
+    private static final String FAILURE_THRESHOLD = "${ethereum.node.pool.failure-threshold:5}";
+    private static final String OPEN_MS = "${ethereum.node.pool.open-ms:10000}";
+    private static final String HEDGE_ENABLED = "${ethereum.node.pool.hedge-enabled:true}";
+    private static final String HEDGE_DELAY_MS = "${ethereum.node.pool.hedge-delay-ms:50}";
+    private static final String HEDGE_THREADS = "${ethereum.node.pool.hedge-threads:32}";
+    private static final String METRIC_CALLS = "ethereum.node.pool.calls";
+    private static final String METRIC_HEDGED = "ethereum.node.pool.hedged";
+    private static final String METRIC_LATENCY_EWMA = "ethereum.node.pool.latency.ewma";
+    private static final String TAG_NODE = "node";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BUSY_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int LATENCY_WINDOW = 128;
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final int ERROR_BODY_LIMIT = 256;
+
+    private final List<Node> nodes;
+    private final double ewmaAlpha;
+    private final int maxInFlight;
+    private final Object callCompleted = new Object();
+    private final int failureThreshold;
+    private final long openNanos;
+    private final boolean hedgeEnabled;
+    private final long hedgeDelayNanos;
+    private final MeterRegistry meterRegistry;
+    private final OkHttpClient httpClient;
+    private final ExecutorService executor;
+
+    public NodePool(@Qualifier(NodeFetchConfiguration.NODE_HTTP_CLIENT) OkHttpClient httpClient, @Value(URLS) List<String> urls, @Value(EWMA_ALPHA) double ewmaAlpha, @Value(RATE_LIMIT) int rateLimit,
+            @Value(MAX_IN_FLIGHT) int maxInFlight, @Value(FAILURE_THRESHOLD) int failureThreshold, @Value(OPEN_MS) long openMs, @Value(HEDGE_ENABLED) boolean hedgeEnabled,
+            @Value(HEDGE_DELAY_MS) long hedgeDelayMs, @Value(HEDGE_THREADS) int hedgeThreads, MeterRegistry meterRegistry) {
+        super(false);
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("No Ethereum node url configured");
+        }
+        this.ewmaAlpha = ewmaAlpha;
+        this.maxInFlight = maxInFlight;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.hedgeEnabled = hedgeEnabled && urls.size() > 1;
+        this.hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeDelayMs);
+        this.meterRegistry = meterRegistry;
+        this.httpClient = httpClient;
+        this.nodes = urls.stream().map(String::trim).map(url -> new Node(url, rateLimit)).toList();
+        this.nodes.forEach(node -> Gauge.builder(METRIC_LATENCY_EWMA, node, n -> n.ewmaNanos / 1e9).baseUnit("seconds").tag(TAG_NODE, node.name)
+                .register(meterRegistry));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("node-pool-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(0, hedgeThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+
+    /**
+     * Pool with the default settings over a default HTTP client.
+     */
+    public static NodePool of(List<String> urls, MeterRegistry meterRegistry) {
+        return new NodePool(new OkHttpClient(), urls, 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+    }
+
+    /**
+     * Decodes the responses of the batch one by one from the stream, straight into the response type of the batch,
+     * without reading it into a JSON tree first. Batches are homogeneous, so one response type covers them all. Nodes
+     * may answer in any order, decoded responses are matched to their requests by id and returned in request order,
+     * responses without a known id are skipped.
+     *
+     * @throws IllegalArgumentException if the requests of the batch do not share one response type
+     * @throws BatchNotSupportedException if the node answered with a single object instead of an array
+     */
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        if (requests.isEmpty()) {
+            return new BatchResponse(requests, List.of());
+        }
+        Class<? extends Response<?>> responseType = requests.get(0).getResponseType();
+        if (requests.stream().anyMatch(request -> request.getResponseType() != responseType)) {
+            throw new IllegalArgumentException("Requests of a batch must share one response type");
+        }
+        try (InputStream result = performIO(objectMapper.writeValueAsString(requests)); JsonParser parser = objectMapper.getFactory().createParser(result)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                // nodes without batch support answer with a single error object
+                throw parser.currentToken() == JsonToken.START_OBJECT ? new BatchNotSupportedException("Node answered the batch request with a single object")
+                        : new IOException("Node did not answer the batch request with an array");
+            }
+            Map<Long, Response<?>> responsesById = new HashMap<>();
+            requests.forEach(request -> responsesById.put(request.getId(), null));
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Response<?> response = objectMapper.readValue(parser, responseType);
+                if (!responsesById.containsKey(response.getId())) {
+                    log.debug("Skipping batch response with unknown id {}", response.getId());
+                    continue;
+                }
+                responsesById.put(response.getId(), response);
+            }
+            List<Response<?>> responses = new ArrayList<>(requests.size());
+            requests.stream().map(request -> responsesById.get(request.getId())).filter(response -> response != null).forEach(responses::add);
+            return new BatchResponse(requests, responses);
+        }
+    }
+
+    @Override
+    protected InputStream performIO(String payload) throws IOException {
+        Set<Node> tried = new HashSet<>();
+        IOException failure = null;
+        while (tried.size() < nodes.size()) {
+            Node node = acquire(tried, true);
+            if (node == null) {
+                break;
+            }
+            tried.add(node);
+            try {
+                return callHedged(node, payload, tried);
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                log.debug("Call to node {} failed, reason: {}", node.name, e.getMessage());
+                failure = e;
+            }
+        }
+        throw failure != null ? failure : new IOException("No Ethereum node available, all circuit breakers are open");
+    }
+
+    private InputStream callHedged(Node primary, String payload, Set<Node> tried) throws IOException {
+        if (!hedgeEnabled) {
+            return primary.call(payload);
+        }
+        NodeCall first;
+        try {
+            first = submit(primary, payload);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedge pool busy, calling node {} without a hedge", primary.name);
+            return primary.call(payload);
+        }
+        try {
+            return first.response.get(primary.hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // slower than usual, hedge below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            first.abandon();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for node " + primary.name);
+        }
+
+        Node backup;
+        try {
+            backup = acquire(tried, false);
+        } catch (InterruptedIOException e) {
+            first.abandon();
+            throw e;
+        }
+        if (backup == null) {
+            return await(first.response, List.of(first));
+        }
+        tried.add(backup);
+        NodeCall second;
+        try {
+            second = submit(backup, payload);
+        } catch (RejectedExecutionException e) {
+            backup.release();
+            return await(first.response, List.of(first));
+        }
+        meterRegistry.counter(METRIC_HEDGED, TAG_NODE, primary.name).increment();
+        return await(firstSuccessful(first, second), List.of(first, second));
+    }
+
+    private NodeCall submit(Node node, String payload) {
+        okhttp3.Call call = node.newCall(payload);
+        return new NodeCall(call, CompletableFuture.supplyAsync(() -> {
+            try {
+                return node.execute(call);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Takes a permit of the best available node, waits when all of them are rate limited or busy.
+     *
+     * @param wait whether to wait for a rate limited or busy node, or to give up at once
+     * @return the node, null if no node except the excluded ones is available
+     */
+    private Node acquire(Set<Node> excluded, boolean wait) throws InterruptedIOException {
+        while (true) {
+            List<Node> candidates = new ArrayList<>(nodes.stream().filter(node -> !excluded.contains(node) && node.isAvailable()).toList());
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            candidates.sort(Comparator.comparingDouble(Node::score));
+            long waitNanos = Long.MAX_VALUE;
+            for (Node node : candidates) {
+                long nanos = node.tryAcquire();
+                if (nanos == 0) {
+                    return node;
+                }
+                if (nanos > 0) {
+                    waitNanos = Math.min(waitNanos, nanos);
+                }
+            }
+            if (waitNanos == Long.MAX_VALUE) {
+                // trial calls taken meanwhile, availability checked again
+                continue;
+            }
+            if (!wait) {
+                return null;
+            }
+            try {
+                // woken up early when a call completes
+                synchronized (callCompleted) {
+                    TimeUnit.NANOSECONDS.timedWait(callCompleted, waitNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a node");
+            }
+        }
+    }
+
+    /**
+     * Response of the call answered first, the other call is cancelled.
+     */
+    private static CompletableFuture<InputStream> firstSuccessful(NodeCall first, NodeCall second) {
+        CompletableFuture<InputStream> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (NodeCall call : List.of(first, second)) {
+            NodeCall other = call == first ? second : first;
+            call.response.whenComplete((response, e) -> {
+                if (e == null) {
+                    if (result.complete(response)) {
+                        other.abandon();
+                    } else {
+                        closeQuietly(response);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @param calls calls abandoned when the wait is interrupted
+     */
+    private static InputStream await(CompletableFuture<InputStream> future, List<NodeCall> calls) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            calls.forEach(NodeCall::abandon);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for node");
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+        return cause instanceof IOException io ? io : new IOException(cause);
+    }
+
+    private static void closeQuietly(InputStream response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            log.debug("Failed to close an unused node response, reason: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The node does not implement JSON-RPC batch requests.
+     */
+    public static class BatchNotSupportedException extends IOException {
+        public BatchNotSupportedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Node of the pool with its latency statistics, circuit breaker and rate limit.
+     */
+    private final class Node {
+        private final String url;
+        private final String name;
+        private final double permitsPerNano;
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean trial = new AtomicBoolean();
+        private volatile double ewmaNanos;
+        private int latencyCount;
+        private int consecutiveFailures;
+        private long openUntilNanos;
+        private double permits;
+        private long permitsUpdatedNanos = System.nanoTime();
+
+        Node(String url, int rateLimit) {
+            this.url = url;
+            this.name = name(url);
+            this.permitsPerNano = rateLimit > 0 ? rateLimit / 1e9 : 0;
+            this.permits = rateLimit;
+        }
+
+        /**
+         * @return body of the response, the connection is released once it is closed
+         */
+        InputStream call(String payload) throws IOException {
+            return execute(newCall(payload));
+        }
+
+        okhttp3.Call newCall(String payload) {
+            return httpClient.newCall(new okhttp3.Request.Builder().url(url).post(RequestBody.create(payload, JSON)).build());
+        }
+
+        /**
+         * Runs the call of a permit taken by {@link #tryAcquire()}, the permit is given back when the returned body is
+         * closed or the call fails. A cancelled call is not a failure of the node, its time so far is taken as its latency.
+         *
+         * @return body of the response, the connection is released once it is closed
+         */
+        InputStream execute(okhttp3.Call call) throws IOException {
+            long start = System.nanoTime();
+            try {
+                okhttp3.Response response = call.execute();
+                if (!response.isSuccessful()) {
+                    try (response) {
+                        throw new IOException("Invalid response received: " + response.code() + "; " + response.peekBody(ERROR_BODY_LIMIT).string());
+                    }
+                }
+                succeeded(System.nanoTime() - start);
+                return new ResponseStream(response.body(), this::completed);
+            } catch (IOException | RuntimeException e) {
+                if (call.isCanceled()) {
+                    cancelled(System.nanoTime() - start);
+                } else {
+                    failed(System.nanoTime() - start);
+                }
+                completed();
+                throw e;
+            }
+        }
+
+        double score() {
+            return ewmaNanos * (inFlight.get() + 1);
+        }
+
+        synchronized boolean isAvailable() {
+            return consecutiveFailures < failureThreshold || (System.nanoTime() - openUntilNanos >= 0 && !trial.get());
+        }
+
+        /**
+         * Takes a call permit, a half open breaker lets a single trial call through.
+         *
+         * @return 0 when taken, negative when the breaker is open, otherwise nanos until a permit is available
+         */
+        synchronized long tryAcquire() {
+            boolean open = consecutiveFailures >= failureThreshold;
+            if (open && System.nanoTime() - openUntilNanos < 0) {
+                return -1;
+            }
+            if (maxInFlight > 0 && inFlight.get() >= maxInFlight) {
+                return BUSY_WAIT_NANOS;
+            }
+            if (open && !trial.compareAndSet(false, true)) {
+                return -1;
+            }
+            if (permitsPerNano > 0) {
+                long now = System.nanoTime();
+                permits = Math.min(permitsPerNano * 1e9, permits + (now - permitsUpdatedNanos) * permitsPerNano);
+                permitsUpdatedNanos = now;
+                if (permits < 1) {
+                    trial.set(false);
+                    return Math.max(1, (long) ((1 - permits) / permitsPerNano));
+                }
+                permits--;
+            }
+            inFlight.incrementAndGet();
+            return 0;
+        }
+
+        /**
+         * Gives back a permit which was not used.
+         */
+        synchronized void release() {
+            trial.set(false);
+            completed();
+        }
+
+        private void completed() {
+            inFlight.decrementAndGet();
+            synchronized (callCompleted) {
+                callCompleted.notifyAll();
+            }
+        }
+
+        /**
+         * Delay after which a duplicate call is sent to another node.
+         */
+        synchronized long hedgeDelayNanos() {
+            if (latencyCount == 0) {
+                return hedgeDelayNanos;
+            }
+            long[] window = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_WINDOW));
+            Arrays.sort(window);
+            return Math.max(hedgeDelayNanos, window[(int) Math.ceil(HEDGE_PERCENTILE * window.length) - 1]);
+        }
+
+        private synchronized void succeeded(long nanos) {
+            latencies[latencyCount++ % LATENCY_WINDOW] = nanos;
+            if (latencyCount >= 2 * LATENCY_WINDOW) {
+                latencyCount -= LATENCY_WINDOW;
+            }
+            updateEwma(nanos);
+            consecutiveFailures = 0;
+            trial.set(false);
+            meterRegistry.counter(METRIC_CALLS, TAG_NODE, name, TAG_OUTCOME, "success").increment();
+        }
+
+        private synchronized void failed(long nanos) {
+            updateEwma(nanos + FAILURE_PENALTY_NANOS);
+            if (++consecutiveFailures >= failureThreshold) {
+                if (consecutiveFailures == failureThreshold || trial.get()) {
+                    log.warn("Node {} failed {} times in a row, opening its circuit breaker", name, consecutiveFailures);
+                }
+                openUntilNanos = System.nanoTime() + openNanos;
+            }
+            trial.set(false);
+            meterRegistry.counter(METRIC_CALLS, TAG_NODE, name, TAG_OUTCOME, "error").increment();
+        }
+
+        private synchronized void cancelled(long nanos) {
+            updateEwma(nanos);
+            trial.set(false);
+        }
+
+        private void updateEwma(long nanos) {
+            ewmaNanos = ewmaNanos == 0 ? nanos : ewmaAlpha * nanos + (1 - ewmaAlpha) * ewmaNanos;
+        }
+
+        /**
+         * Host and port only, the url may carry an API key.
+         */
+        private static String name(String url) {
+            URI uri = URI.create(url);
+            return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        }
+    }
+
+    /**
+     * Call of a node on the hedge pool.
+     */
+    private static final class NodeCall {
+        private final okhttp3.Call call;
+        private final CompletableFuture<InputStream> response;
+
+        NodeCall(okhttp3.Call call, CompletableFuture<InputStream> response) {
+            this.call = call;
+            this.response = response;
+        }
+
+        /**
+         * Cancels the call, a response which arrives anyway is closed.
+         */
+        void abandon() {
+            call.cancel();
+            response.thenAccept(NodePool::closeQuietly);
+        }
+    }
+
+    /**
+     * Body of a node response. Closing reads the rest of it, so the connection is kept alive and reused.
+     */
+    private static final class ResponseStream extends FilterInputStream {
+        private final ResponseBody body;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ResponseStream(ResponseBody body, Runnable onClose) {
+            super(body.byteStream());
+            this.body = body;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try (body) {
+                in.transferTo(OutputStream.nullOutputStream());
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+}
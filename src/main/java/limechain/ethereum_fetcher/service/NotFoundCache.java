@@ -0,0 +1,64 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import limechain.ethereum_fetcher.model.Transaction;
+
+/**
+ * Negative cache of hashes the Ethereum node did not know, keyed by lower-cased hash, so repeated lookups of bogus hashes
+ * do not cost node calls.
+ *
+ * A hash not known to the node may still be propagating to it, entries expire after {@code transaction.not-found-cache.ttl-ms}
+ * and at most {@code transaction.not-found-cache.max-size} hashes are kept. The chain follower and the block prefetch
+ * invalidate the hashes they store, a transaction stored by another instance is not found here until its entry expires.
+ */
+@Component
+public class NotFoundCache implements MeterBinder {
+
+    private static final String TTL_MS = "${transaction.not-found-cache.ttl-ms:10000}";
+    private static final String MAX_SIZE = "${transaction.not-found-cache.max-size:100000}";
+    private static final String CACHE_NAME = "transactions.not_found";
+
+    private final Cache<String, Boolean> cache;
+
+    public NotFoundCache(@Value(TTL_MS) long ttlMs, @Value(MAX_SIZE) long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public boolean contains(String hash) {
+        return cache.getIfPresent(TransactionCache.normalize(hash)) != null;
+    }
+
+    public void putAll(Collection<String> hashes) {
+        hashes.forEach(hash -> cache.put(TransactionCache.normalize(hash), Boolean.TRUE));
+    }
+
+    /**
+     * Forgets the hashes of the stored transactions.
+     */
+    public void invalidateAll(Collection<Transaction> storedTransactions) {
+        List<String> hashes = storedTransactions.stream().map(Transaction::getHash).filter(Objects::nonNull).map(TransactionCache::normalize).toList();
+        cache.invalidateAll(hashes);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
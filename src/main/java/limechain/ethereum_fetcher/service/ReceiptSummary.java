@@ -0,0 +1,82 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The fields of a transaction receipt which are stored, decoded from the JSON-RPC response while it streams.
+ *
+ * Logs are counted without being materialized, their topics and data are skipped by the parser. Receipts of DeFi
+ * transactions carry hundreds of logs, which made the full web3j receipt the largest allocation of a node fetch.
+ */
+@Getter
+@AllArgsConstructor
+@JsonDeserialize(using = ReceiptSummary.Deserializer.class)
+public class ReceiptSummary {
+    private static final String STATUS_OK = "0x1";
+
+    private final String transactionHash;
+    private final String status;
+    private final String contractAddress;
+    private final int logsCount;
+
+    /**
+     * Same as the web3j receipt, receipts before Byzantium carry no status and count as successful.
+     */
+    public boolean isStatusOK() {
+        return status == null || STATUS_OK.equals(status);
+    }
+
+    public static class Deserializer extends StdDeserializer<ReceiptSummary> {
+
+        public Deserializer() {
+            super(ReceiptSummary.class);
+        }
+
+        @Override
+        public ReceiptSummary deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                return (ReceiptSummary) ctxt.handleUnexpectedToken(ReceiptSummary.class, p);
+            }
+            String transactionHash = null;
+            String status = null;
+            String contractAddress = null;
+            int logsCount = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                case "transactionHash" -> transactionHash = text(p, value);
+                case "status" -> status = text(p, value);
+                case "contractAddress" -> contractAddress = text(p, value);
+                case "logs" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        while (p.nextToken() != JsonToken.END_ARRAY) {
+                            logsCount++;
+                            p.skipChildren();
+                        }
+                    }
+                }
+                default -> p.skipChildren();
+                }
+            }
+            return new ReceiptSummary(transactionHash, status, contractAddress, logsCount);
+        }
+
+        private static String text(JsonParser p, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_STRING) {
+                return p.getText();
+            }
+            p.skipChildren();
+            return null;
+        }
+    }
+}
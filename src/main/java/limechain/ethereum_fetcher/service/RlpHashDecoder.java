@@ -0,0 +1,114 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Decodes a hex encoded RLP list of 32 byte transaction hashes.
+ *
+ * The hex string is walked once, bytes are read straight from its characters, so the only allocations are the resulting
+ * hash strings, which come out normalized (lower case with {@code 0x} prefix). Lengths are validated, a payload which is
+ * not exactly one list of 32 byte strings is rejected with {@link IllegalArgumentException}.
+ */
+final class RlpHashDecoder {
+
+    private static final int SHORT_STRING = 0x80;
+    private static final int SHORT_LIST = 0xc0;
+    private static final int LONG_LIST = 0xf8;
+    private static final int SHORT_LIST_MAX_LENGTH = LONG_LIST - SHORT_LIST - 1;
+    private static final int MAX_LENGTH_OF_LENGTH = 4;
+    private static final int HASH_ITEM = SHORT_STRING + Hex.HASH_BYTES;
+
+    private final CharSequence rlphex;
+    private final int from;
+    private final int size;
+    private int position;
+
+    private RlpHashDecoder(CharSequence rlphex) {
+        this.rlphex = rlphex;
+        this.from = Hex.prefixLength(rlphex);
+        if ((rlphex.length() - from) % 2 != 0) {
+            throw new IllegalArgumentException("Odd length RLP hex string of " + rlphex.length() + " characters");
+        }
+        this.size = (rlphex.length() - from) / 2;
+    }
+
+    static List<String> decodeHashList(CharSequence rlphex) {
+        return new RlpHashDecoder(rlphex).decode();
+    }
+
+    private List<String> decode() {
+        long payload = readListLength();
+        if (position + payload != size) {
+            throw new IllegalArgumentException("RLP list length " + payload + " does not match the " + (size - position) + " remaining bytes");
+        }
+        List<String> hashes = new ArrayList<>((int) (payload / (Hex.HASH_BYTES + 1)));
+        while (position < size) {
+            int prefix = readByte();
+            if (prefix != HASH_ITEM) {
+                throw new IllegalArgumentException("Expected RLP string of " + Hex.HASH_BYTES + " bytes at offset " + (position - 1));
+            }
+            if (position + Hex.HASH_BYTES > size) {
+                throw new IllegalArgumentException("Truncated hash at offset " + position);
+            }
+            hashes.add(readHash());
+        }
+        return hashes;
+    }
+
+    private long readListLength() {
+        int prefix = readByte();
+        if (prefix < SHORT_LIST) {
+            throw new IllegalArgumentException("Expected RLP list but got prefix 0x" + Integer.toHexString(prefix));
+        }
+        if (prefix < LONG_LIST) {
+            return prefix - SHORT_LIST;
+        }
+        int lengthOfLength = prefix - LONG_LIST + 1;
+        if (lengthOfLength > MAX_LENGTH_OF_LENGTH) {
+            throw new IllegalArgumentException("RLP list too long");
+        }
+        long length = 0;
+        for (int i = 0; i < lengthOfLength; i++) {
+            int b = readByte();
+            if (i == 0 && b == 0) {
+                throw new IllegalArgumentException("Non canonical RLP list length");
+            }
+            length = length << 8 | b;
+        }
+        if (length <= SHORT_LIST_MAX_LENGTH) {
+            throw new IllegalArgumentException("Non canonical RLP list length");
+        }
+        return length;
+    }
+
+    private int readByte() {
+        if (position >= size) {
+            throw new IllegalArgumentException("Unexpected end of RLP at offset " + position);
+        }
+        int index = from + 2 * position++;
+        return digitAt(index) << 4 | digitAt(index + 1);
+    }
+
+    private String readHash() {
+        char[] hash = new char[Hex.PREFIX.length() + 2 * Hex.HASH_BYTES];
+        hash[0] = '0';
+        hash[1] = 'x';
+        int index = from + 2 * position;
+        for (int i = Hex.PREFIX.length(); i < hash.length; i++) {
+            hash[i] = Hex.digit(digitAt(index++));
+        }
+        position += Hex.HASH_BYTES;
+        return new String(hash);
+    }
+
+    private int digitAt(int index) {
+        int value = Hex.value(rlphex.charAt(index));
+        if (value < 0) {
+            throw new IllegalArgumentException("Non hex character at position " + index);
+        }
+        return value;
+    }
+}
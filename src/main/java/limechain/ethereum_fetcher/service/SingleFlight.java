@@ -0,0 +1,55 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller claims the key and loads it, later callers join the
+ * pending result instead of loading it again.
+ *
+ * A caller must complete or fail every key it claimed, otherwise joined callers wait until their own timeout.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param keys keys to load
+     * @param claimedKeys receives the keys claimed by the caller, which it has to load
+     * @return pending results of the keys already being loaded by other callers
+     */
+    public Map<K, CompletableFuture<V>> claim(Collection<K> keys, Collection<K> claimedKeys) {
+        Map<K, CompletableFuture<V>> joined = new HashMap<>();
+        for (K key : keys) {
+            CompletableFuture<V> pending = inFlight.putIfAbsent(key, new CompletableFuture<>());
+            if (pending == null) {
+                claimedKeys.add(key);
+            } else {
+                joined.put(key, pending);
+            }
+        }
+        return joined;
+    }
+
+    public void complete(K key, V value) {
+        CompletableFuture<V> pending = inFlight.remove(key);
+        if (pending != null) {
+            pending.complete(value);
+        }
+    }
+
+    public void fail(K key, Throwable cause) {
+        CompletableFuture<V> pending = inFlight.remove(key);
+        if (pending != null) {
+            pending.completeExceptionally(cause);
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,175 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+import limechain.ethereum_fetcher.util.Hex;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter of the hashes of stored transactions, so lookups of hashes which are certainly not stored skip the DB and
+ * go straight to the Ethereum node.
+ *
+ * The filter takes a fixed number of bits, sized for {@code transaction.stored-filter.expected-insertions} hashes at the
+ * false positive rate {@code transaction.stored-filter.fpp} and bounded by {@code transaction.stored-filter.max-bytes}.
+ * More hashes raise the false positive rate, which is estimated from the share of set bits by {@value #METRIC_FPP}.
+ *
+ * The hashes stored before the start are loaded in the background once the application is ready, until then every
+ * hash may be stored. Hashes stored by this instance are added as they are stored. Hashes stored by other instances
+ * since the start are unknown, their lookups go to the node and find the stored row on the insert conflict.
+ */
+@Component
+@Slf4j
+public class StoredHashFilter implements MeterBinder {
+
+    private static final String ENABLED = "${transaction.stored-filter.enabled:true}";
+    private static final String EXPECTED_INSERTIONS = "${transaction.stored-filter.expected-insertions:10000000}";
+    private static final String FPP = "${transaction.stored-filter.fpp:0.01}";
+    private static final String MAX_BYTES = "${transaction.stored-filter.max-bytes:16777216}";
+    private static final String METRIC_BYTES = "transactions.stored.filter.bytes";
+    private static final String METRIC_FPP = "transactions.stored.filter.fpp";
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    private final TransactionRepository repository;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final AtomicLong setBits = new AtomicLong();
+    private volatile boolean ready;
+
+    public StoredHashFilter(TransactionRepository repository, @Value(ENABLED) boolean enabled, @Value(EXPECTED_INSERTIONS) long expectedInsertions,
+            @Value(FPP) double fpp, @Value(MAX_BYTES) long maxBytes) {
+        this.repository = repository;
+        this.enabled = enabled;
+        if (enabled) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, Math.min((optimalBits + Long.SIZE - 1) / Long.SIZE, maxBytes / Long.BYTES));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * Long.SIZE;
+            this.hashFunctions = (int) Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round((double) bitCount / expectedInsertions * Math.log(2))));
+        } else {
+            this.bits = new AtomicLongArray(0);
+            this.bitCount = 0;
+            this.hashFunctions = 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (enabled) {
+            Thread loader = new Thread(this::load, "stored-hash-filter");
+            loader.setDaemon(true);
+            loader.start();
+        }
+    }
+
+    void load() {
+        try {
+            long start = System.nanoTime();
+            long count = repository.forEachHash(this::put);
+            ready = true;
+            log.info("Loaded {} stored hashes into filter of {} bytes in {} ms", count, bits.length() * (long) Long.BYTES,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("Failed to load stored hashes, lookups will not skip the DB, reason: {}", e.getMessage());
+        }
+    }
+
+    public void putAll(Collection<Transaction> transactions) {
+        if (enabled) {
+            transactions.forEach(t -> put(t.getHash()));
+        }
+    }
+
+    /**
+     * @return false if no transaction of the hash is stored, true if one may be stored or the filter is not loaded
+     */
+    public boolean mightContain(String hash) {
+        if (!ready) {
+            return true;
+        }
+        long h1 = mix(hash64(hash));
+        long h2 = mix(h1);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return false positive rate expected from the share of set bits
+     */
+    double expectedFpp() {
+        return bitCount == 0 ? 1 : Math.pow((double) setBits.get() / bitCount, hashFunctions);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_BYTES, bits, b -> b.length() * (double) Long.BYTES).baseUnit("bytes").register(registry);
+        Gauge.builder(METRIC_FPP, this, StoredHashFilter::expectedFpp).register(registry);
+    }
+
+    private void put(String hash) {
+        if (hash == null) {
+            return;
+        }
+        long h1 = mix(hash64(hash));
+        long h2 = mix(h1);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long value;
+            do {
+                value = bits.get(word);
+                if ((value & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, value, value | mask));
+            if ((value & mask) == 0) {
+                setBits.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * FNV-1a of the hex digits in lower case, so the same hash with or without prefix and in any case hashes the same.
+     */
+    private static long hash64(String hash) {
+        int from = hash.regionMatches(true, 0, Hex.PREFIX, 0, Hex.PREFIX.length()) ? Hex.PREFIX.length() : 0;
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < hash.length(); i++) {
+            h = (h ^ Character.toLowerCase(hash.charAt(i))) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,120 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Looks up very large hash sets posted as a request body.
+ *
+ * The body is parsed while it streams, the hashes are looked up in chunks of {@code transaction.bulk.chunk-size} by
+ * {@link TransactionService#findByHashList(List)}, each chunk in its own DB transaction, and the found transactions are
+ * written to the client after every chunk. Neither the lookup nor the response holds more than a chunk of transactions.
+ */
+@Service
+public class TransactionBulkLookup {
+
+    private static final String CHUNK_SIZE = "${transaction.bulk.chunk-size:1000}";
+    private static final String MAX_HASHES = "${transaction.bulk.max-hashes:100000}";
+    private static final String FIELD_TRANSACTIONS = "transactions";
+    private static final String FIELD_FAILED_HASHES = "failedHashes";
+
+    private final TransactionService service;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxHashes;
+
+    public TransactionBulkLookup(TransactionService service, ObjectMapper objectMapper, @Value(CHUNK_SIZE) int chunkSize,
+            @Value(MAX_HASHES) int maxHashes) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxHashes = maxHashes;
+    }
+
+    /**
+     * @throws TooManyHashesException if the body carries more than {@code transaction.bulk.max-hashes} hashes
+     * @throws IllegalArgumentException if the body does not follow the format
+     */
+    public List<String> readHashes(InputStream body, HashStreamReader.Format format) throws IOException {
+        List<String> hashes = HashStreamReader.read(body, format, maxHashes + 1);
+        if (hashes.size() > maxHashes) {
+            throw new TooManyHashesException("More than " + maxHashes + " hashes");
+        }
+        return hashes;
+    }
+
+    /**
+     * Writes the response as JSON in the same format as {@code /lime/eth}, the hashes which could not be fetched from the
+     * node follow the transactions.
+     *
+     * @return number of found transactions
+     */
+    public long write(List<String> hashes, OutputStream out) throws IOException {
+        return write(hashes, objectMapper, out);
+    }
+
+    /**
+     * Same as {@link #write(List, OutputStream)} in the data format of the given mapper, e.g. CBOR.
+     */
+    public long write(List<String> hashes, ObjectMapper mapper, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(hashes.stream().map(String::trim).map(Hex::normalize).toList()));
+        Set<String> failedHashes = new LinkedHashSet<>();
+        long count = 0;
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(FIELD_TRANSACTIONS);
+            for (int from = 0; from < distinct.size(); from += chunkSize) {
+                FetchResult result = lookup(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+                for (Transaction transaction : result.getTransactions()) {
+                    writer.writeValue(generator, transaction);
+                    count++;
+                }
+                failedHashes.addAll(result.getFailedHashes());
+                generator.flush();
+            }
+            generator.writeEndArray();
+            if (!failedHashes.isEmpty()) {
+                generator.writeArrayFieldStart(FIELD_FAILED_HASHES);
+                for (String hash : failedHashes) {
+                    generator.writeString(hash);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+        return count;
+    }
+
+    private FetchResult lookup(List<String> chunk) throws IOException {
+        try {
+            return service.findByHashList(chunk);
+        } catch (TransactionException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    public static class TooManyHashesException extends IllegalArgumentException {
+        public TooManyHashesException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.Transaction;
+
+/**
+ * In-process cache of stored transactions consulted before the DB, keyed by lower-cased hash.
+ *
+ * Bounded by the approximate memory weight of the entries with W-TinyLFU eviction. {@link Finality#FINAL} transactions,
+ * whose block was verified by the {@link FinalityVerifier}, stay until evicted. Other mined transactions may still be
+ * reorged out, however deep their block is, and expire after {@code transaction.cache.provisional-ttl-ms}. Pending
+ * transactions (no block number) are not cached.
+ */
+@Component
+public class TransactionCache implements MeterBinder {
+
+    private static final String MAX_WEIGHT = "${transaction.cache.max-weight-bytes:67108864}";
+    private static final String PROVISIONAL_TTL_MS = "${transaction.cache.provisional-ttl-ms:5000}";
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final String CACHE_NAME = "transactions";
+
+    private final Cache<String, Transaction> cache;
+    private final long provisionalTtlNanos;
+
+    public TransactionCache(@Value(MAX_WEIGHT) long maxWeightBytes, @Value(PROVISIONAL_TTL_MS) long provisionalTtlMs) {
+        this.provisionalTtlNanos = TimeUnit.MILLISECONDS.toNanos(provisionalTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String hash, Transaction transaction) -> weigh(transaction))
+                .expireAfter(new Expiry<String, Transaction>() {
+                    @Override
+                    public long expireAfterCreate(String hash, Transaction transaction, long currentTime) {
+                        return transaction.getFinality() == Finality.FINAL ? Long.MAX_VALUE : provisionalTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Transaction transaction, long currentTime, long currentDuration) {
+                        return expireAfterCreate(hash, transaction, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Transaction transaction, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return cached transactions by their normalized hash
+     */
+    public Map<String, Transaction> getAll(Collection<String> hashes) {
+        return cache.getAllPresent(hashes.stream().map(TransactionCache::normalize).toList());
+    }
+
+    public void putAll(Collection<Transaction> transactions) {
+        transactions.forEach(t -> {
+            if (t.getHash() != null && t.getBlockNumber() != null) {
+                cache.put(normalize(t.getHash()), t);
+            }
+        });
+    }
+
+    public void invalidate(String hash) {
+        cache.invalidate(normalize(hash));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    static String normalize(String hash) {
+        return hash.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int weigh(Transaction transaction) {
+        return ENTRY_OVERHEAD_BYTES + length(transaction.getHash()) + length(transaction.getBlockHash()) + length(transaction.getFrom())
+                + length(transaction.getTo()) + length(transaction.getContractAddress()) + length(transaction.getInput());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
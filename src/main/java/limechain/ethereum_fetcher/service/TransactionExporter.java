@@ -0,0 +1,83 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+/**
+ * Writes transactions as newline delimited JSON, one transaction per line, straight from a forward-only DB cursor.
+ *
+ * Rows are fetched from the DB in batches of the cursor fetch size, every {@code transaction.export.chunk-size} rows the
+ * persistence context is cleared and the output flushed to the client, so the heap used by an export does not depend on
+ * the number of exported rows.
+ */
+@Service
+public class TransactionExporter {
+
+    private static final String CHUNK_SIZE = "${transaction.export.chunk-size:500}";
+
+    private final TransactionRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+    private final int chunkSize;
+
+    public TransactionExporter(TransactionRepository repository, EntityManager entityManager, ObjectMapper objectMapper,
+            @Value(CHUNK_SIZE) int chunkSize) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return number of exported transactions
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        try (Stream<Transaction> transactions = repository.streamAll()) {
+            return write(transactions, out);
+        }
+    }
+
+    /**
+     * @return number of exported transactions
+     */
+    @Transactional(readOnly = true)
+    public long exportByUser(Long userId, OutputStream out) throws IOException {
+        try (Stream<Transaction> transactions = repository.streamByUser(userId)) {
+            return write(transactions, out);
+        }
+    }
+
+    private long write(Stream<Transaction> transactions, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % chunkSize == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
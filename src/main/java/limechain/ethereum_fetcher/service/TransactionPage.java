@@ -0,0 +1,17 @@
+package limechain.ethereum_fetcher.service;
+
+import java.util.List;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of transactions ordered by id, {@code next} is the opaque cursor of the following page or null on the last one.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String next;
+}
@@ -0,0 +1,68 @@
+package limechain.ethereum_fetcher.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import limechain.ethereum_fetcher.model.Transaction;
+
+/**
+ * Keyset pagination over transaction ids. The cursor carries the id of the last transaction of the previous page, so a
+ * page costs one index range scan of {@code limit} rows regardless of its position in the table.
+ */
+@Component
+public class TransactionPager {
+
+    private static final String DEFAULT_SIZE = "${transaction.page.default-size:100}";
+    private static final String MAX_SIZE = "${transaction.page.max-size:1000}";
+    private static final String CURSOR_PREFIX = "id:";
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public TransactionPager(@Value(DEFAULT_SIZE) int defaultSize, @Value(MAX_SIZE) int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param after cursor of the page, null for the first page
+     * @param limit requested page size, null for the default size
+     * @param query loads up to the given number of transactions with id greater than the given one, ordered by id
+     */
+    public TransactionPage page(String after, Integer limit, BiFunction<Long, Pageable, List<Transaction>> query) {
+        int size = limit == null ? defaultSize : Math.min(Math.max(limit, 1), maxSize);
+        // one extra row tells whether there is a next page
+        List<Transaction> transactions = query.apply(decode(after), PageRequest.of(0, size + 1));
+        if (transactions.size() <= size) {
+            return new TransactionPage(transactions, null);
+        }
+        List<Transaction> page = transactions.subList(0, size);
+        return new TransactionPage(page, encode(page.get(size - 1).getId()));
+    }
+
+    static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+}
@@ -1,159 +1,434 @@
 package limechain.ethereum_fetcher.service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
-import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.web3j.protocol.Web3j;
-import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
-import org.web3j.protocol.http.HttpService;
-import org.web3j.rlp.RlpDecoder;
-import org.web3j.rlp.RlpList;
-import org.web3j.rlp.RlpString;
-import org.web3j.rlp.RlpType;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.MeterRegistry;
+import limechain.ethereum_fetcher.config.NodeFetchConfiguration;
+import limechain.ethereum_fetcher.model.AuthenticatedUser;
 import limechain.ethereum_fetcher.model.Transaction;
-import limechain.ethereum_fetcher.model.User;
 import limechain.ethereum_fetcher.repository.TransactionRepository;
-import limechain.ethereum_fetcher.repository.UserRepository;
+import limechain.ethereum_fetcher.util.Hex;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class TransactionService {
 
-    private static final String ETHEREUM_NODE_URL = "${ethereum.node.url}";
-    private final Web3j web3j;
+    private static final int LINK_CHUNK_SIZE = 1000;
+    private static final Consumer<Collection<Transaction>> NO_SINK = transactions -> {
+    };
+    private static final String LOOKUP_ASYNC_ENABLED = "${transaction.lookup.async.enabled:true}";
+    private static final String LOOKUP_TIMEOUT_MS = "${transaction.lookup.timeout-ms:30000}";
+    private static final String METRIC_LOOKUPS = "transactions.lookups";
+    private static final String METRIC_STORE_CONFLICTS = "transactions.store.conflicts";
+    private static final String TAG_SOURCE = "source";
+    private static final String TAG_OPERATION = "operation";
+    private static final String SOURCE_CACHE = "cache";
+    private static final String SOURCE_DB = "db";
+    private static final String SOURCE_NODE = "node";
+    private static final String SOURCE_FAILED = "failed";
+    private static final String SOURCE_NOT_FOUND = "not_found";
+    private static final String SOURCE_NOT_FOUND_CACHE = "not_found_cache";
+    private static final String METRIC_STORED_FILTER = "transactions.stored.filter";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final String OUTCOME_ABSENT = "absent";
+    private static final String OUTCOME_PRESENT = "present";
+    private static final String OUTCOME_FALSE_POSITIVE = "false_positive";
+    private static final String OUTCOME_STALE = "stale";
+    private static final String OPERATION_INSERT = "insert";
+    private static final String OPERATION_LINK = "link";
+    private final BlockchainService blockchainService;
+    private final TransactionCache cache;
+    private final StoredHashFilter storedHashes;
+    private final NotFoundCache notFoundCache;
     private final TransactionRepository repository;
-    private final UserRepository userRepository;
+    private final TransactionPager pager;
+    private final BlockPrefetcher blockPrefetcher;
+    private final SingleFlight<String, Transaction> inFlightFetches = new SingleFlight<>();
+    private final long joinTimeoutMs;
+    private final MeterRegistry meterRegistry;
+    private final Executor lookupExecutor;
+    private final boolean asyncEnabled;
+    private final long lookupTimeoutMs;
 
-    public TransactionService(@Value(ETHEREUM_NODE_URL) String ethereumNodeUrl, TransactionRepository transactionRecordRepository, UserRepository userRepository) {
-        this.web3j = Web3j.build(new HttpService(ethereumNodeUrl));
+    public TransactionService(BlockchainService blockchainService, TransactionCache cache, StoredHashFilter storedHashes, NotFoundCache notFoundCache,
+            TransactionRepository transactionRecordRepository,
+            TransactionPager pager, BlockPrefetcher blockPrefetcher, MeterRegistry meterRegistry,
+            @Qualifier(NodeFetchConfiguration.LOOKUP_EXECUTOR) Executor lookupExecutor, @Value(LOOKUP_ASYNC_ENABLED) boolean asyncEnabled,
+            @Value(LOOKUP_TIMEOUT_MS) long lookupTimeoutMs) {
+        this.blockchainService = blockchainService;
+        // the fetch of a joined hash is bounded by the fetch timeout, leave the same again for storing it
+        this.joinTimeoutMs = 2 * blockchainService.getFetchTimeoutMs();
+        this.cache = cache;
+        this.storedHashes = storedHashes;
+        this.notFoundCache = notFoundCache;
         this.repository = transactionRecordRepository;
-        this.userRepository = userRepository;
+        this.pager = pager;
+        this.blockPrefetcher = blockPrefetcher;
+        this.meterRegistry = meterRegistry;
+        this.lookupExecutor = lookupExecutor;
+        this.asyncEnabled = asyncEnabled;
+        this.lookupTimeoutMs = lookupTimeoutMs;
     }
 
-    public Collection<Transaction> findAll() {
-        return repository.findAll();
+    /**
+     * Counts looked up hashes by the source which served them, or by the reason they were not served.
+     */
+    private void countLookups(String source, int count) {
+        meterRegistry.counter(METRIC_LOOKUPS, TAG_SOURCE, source).increment(count);
     }
 
-    @Transactional
-    public Collection<Transaction> findByHashList(List<String> hashes) throws IOException, TransactionException {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        final User user = authentication.isAuthenticated() ? userRepository.findById(((User) authentication.getPrincipal()).getId()).orElseThrow() : null;
-        if (user != null) {
-            log.debug("User is authorized");
-        } else {
-            log.debug("User is not authorized, transactions won't be bound to his account");
-        }
-        Set<String> lookingHashes = new HashSet<>(hashes);
-        log.debug("Looking transactions at DB for {} hashes: {}", lookingHashes.size(), lookingHashes);
+    /**
+     * Counts the hashes checked by the stored hash filter by outcome, the false positive rate is
+     * {@value #OUTCOME_FALSE_POSITIVE} / ({@value #OUTCOME_FALSE_POSITIVE} + {@value #OUTCOME_ABSENT}).
+     */
+    private void countStoredFilter(String outcome, int count) {
+        meterRegistry.counter(METRIC_STORED_FILTER, TAG_OUTCOME, outcome).increment(count);
+    }
 
-        List<Transaction> existingTransactions = repository.findByHashIn(hashes);
-        log.debug("Found {} transactions at DB", existingTransactions.size());
+    private static List<String> normalize(Collection<String> hashes) {
+        return hashes.stream().map(TransactionCache::normalize).distinct().toList();
+    }
 
-        if (existingTransactions.size() != lookingHashes.size()) {
+    /**
+     * Hashes are stored as bytes, malformed ones can't exist neither at DB nor at blockchain and are skipped. The others
+     * are normalized as the hashes read from the DB, so that they match the stored ones.
+     */
+    private static List<String> wellFormed(Collection<String> hashes) {
+        List<String> wellFormed = hashes.stream().map(String::trim).filter(Hex::isHex).map(Hex::normalize).toList();
+        if (wellFormed.size() < hashes.size()) {
+            log.debug("Skipping {} malformed hashes", hashes.size() - wellFormed.size());
+        }
+        return wellFormed;
+    }
 
-            existingTransactions.forEach(t -> lookingHashes.remove(t.getHash()));
-            log.debug("Looking transactions at blockchain for {} hashes: {}", lookingHashes.size(), lookingHashes);
+    public TransactionPage findAll(String after, Integer limit) {
+        return pager.page(after, limit, repository::findByIdGreaterThanOrderByIdAsc);
+    }
 
-            List<Transaction> remainTransactions = getFromBlockChain(lookingHashes);
-            log.debug("Received {} transactions from blockchain, go to store them", remainTransactions.size());
+    /**
+     * Looks the hashes up at the cache and the DB, then fetches the missing ones from the blockchain on the calling thread.
+     * Runs outside of a transaction, a DB connection is held only by the lookup and the short writes of the repository,
+     * not across the node calls.
+     */
+    public FetchResult findByHashList(List<String> hashes) throws IOException, TransactionException {
+        Lookup lookup = lookupStored(hashes);
+        fetchMissing(lookup, NO_SINK);
+        return finish(lookup);
+    }
 
-            remainTransactions.forEach(transaction -> {
+    /**
+     * Same as {@link #findByHashList(List)}, besides the found transactions are handed over to the sink as soon as they
+     * are found: those of the cache and the DB at once, those of the blockchain as every node call completes.
+     *
+     * @throws IOException if the sink failed, the fetches not handed over yet are cancelled
+     */
+    public FetchResult streamByHashList(List<String> hashes, TransactionSink sink) throws IOException {
+        Lookup lookup = lookupStored(hashes);
+        if (!lookup.transactions.isEmpty()) {
+            sink.accept(lookup.transactions);
+        }
+        try {
+            fetchMissing(lookup, transactions -> {
                 try {
-                    if (user != null) {
-                        transaction.setUsers(Set.of(user));
-                    }
-                    transaction = repository.saveOne(transaction);
-                } catch (DataIntegrityViolationException de) {
-                    Throwable cause = de.getCause();
-                    if (cause == null || cause.getClass() != ConstraintViolationException.class
-                            || !Transaction.UQ_TRANSACTION_HASH.equals(((ConstraintViolationException) cause).getConstraintName())) {
-                        log.error("Failed to store transaction due to: {}", de, ", transaction: {}", transaction);
-                        throw new RuntimeException("Failed to store transaction at db. Transaction: " + transaction, de);
-                    }
+                    sink.accept(transactions);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                log.debug("Stored transaction: {}", transaction);
             });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return finish(lookup);
+    }
 
-            log.debug("Stored {} transactions", remainTransactions.size());
-            existingTransactions.addAll(remainTransactions);
+    /**
+     * Same as {@link #findByHashList(List)}, except that hashes missing at the cache and the DB are fetched on the lookup
+     * executor, so a slow node does not block the calling request thread. A lookup served by the cache and the DB completes
+     * on the calling thread. The fetch fails by a {@link TimeoutException} after {@code transaction.lookup.timeout-ms}.
+     *
+     * @throws RejectedExecutionException if too many fetches are already pending
+     */
+    public CompletableFuture<FetchResult> findByHashListAsync(List<String> hashes) {
+        Lookup lookup = lookupStored(hashes);
+        if (lookup.missingHashes.isEmpty() || !asyncEnabled) {
+            fetchMissing(lookup, NO_SINK);
+            return CompletableFuture.completedFuture(finish(lookup));
         }
+        return CompletableFuture.supplyAsync(() -> {
+            fetchMissing(lookup, NO_SINK);
+            return finish(lookup);
+        }, lookupExecutor).orTimeout(lookupTimeoutMs, TimeUnit.MILLISECONDS);
+    }
 
+    private Lookup lookupStored(List<String> hashes) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final AuthenticatedUser user = authentication.isAuthenticated() ? (AuthenticatedUser) authentication.getPrincipal() : null;
         if (user != null) {
-            user.getTransactions().addAll(existingTransactions);
-            userRepository.save(user);
+            log.debug("User is authorized");
+        } else {
+            log.debug("User is not authorized, transactions won't be bound to his account");
         }
-        return existingTransactions;
+        Set<String> lookingHashes = new LinkedHashSet<>(wellFormed(hashes));
+        Map<String, Transaction> cachedTransactions = cache.getAll(lookingHashes);
+        List<Transaction> existingTransactions = new ArrayList<>(cachedTransactions.values());
+        lookingHashes.removeIf(hash -> cachedTransactions.containsKey(TransactionCache.normalize(hash)));
+        log.debug("Found {} transactions at cache", existingTransactions.size());
+        countLookups(SOURCE_CACHE, cachedTransactions.size());
+
+        int looking = lookingHashes.size();
+        lookingHashes.removeIf(notFoundCache::contains);
+        if (lookingHashes.size() < looking) {
+            log.debug("Skipping {} hashes recently not found at blockchain", looking - lookingHashes.size());
+            countLookups(SOURCE_NOT_FOUND_CACHE, looking - lookingHashes.size());
+        }
+
+        List<String> maybeStoredHashes = lookingHashes.stream().filter(storedHashes::mightContain).toList();
+        Set<String> skippedDbHashes = new LinkedHashSet<>(lookingHashes);
+        maybeStoredHashes.forEach(skippedDbHashes::remove);
+        if (!skippedDbHashes.isEmpty()) {
+            log.debug("Skipping DB for {} hashes which are not stored", skippedDbHashes.size());
+            countStoredFilter(OUTCOME_ABSENT, skippedDbHashes.size());
+        }
+        if (!maybeStoredHashes.isEmpty()) {
+            log.debug("Looking transactions at DB for {} hashes: {}", maybeStoredHashes.size(), maybeStoredHashes);
+            List<Transaction> storedTransactions = repository.findByHashIn(maybeStoredHashes);
+            log.debug("Found {} transactions at DB", storedTransactions.size());
+            countLookups(SOURCE_DB, storedTransactions.size());
+            cache.putAll(storedTransactions);
+            storedTransactions.forEach(t -> lookingHashes.remove(t.getHash()));
+            existingTransactions.addAll(storedTransactions);
+            if (storedHashes.isReady()) {
+                countStoredFilter(OUTCOME_PRESENT, storedTransactions.size());
+                countStoredFilter(OUTCOME_FALSE_POSITIVE, maybeStoredHashes.size() - storedTransactions.size());
+            }
+        }
+        return new Lookup(user, existingTransactions, lookingHashes, skippedDbHashes);
     }
 
-    @Transactional
-    public Collection<Transaction> findByRlphex(String rlphexHashes) throws IOException, TransactionException {
-        return findByHashList(decodeRlpAndGetTransactions(rlphexHashes));
+    private void fetchMissing(Lookup lookup, Consumer<Collection<Transaction>> onFound) {
+        Set<String> lookingHashes = lookup.missingHashes;
+        if (lookingHashes.isEmpty()) {
+            return;
+        }
+        List<Transaction> existingTransactions = lookup.transactions;
+        int foundBefore = existingTransactions.size();
+        Set<String> failedHashes = lookup.failedHashes;
+        List<String> claimedHashes = new ArrayList<>();
+        Map<String, CompletableFuture<Transaction>> joinedFetches = inFlightFetches.claim(normalize(lookingHashes), claimedHashes);
+        if (!joinedFetches.isEmpty()) {
+            log.debug("Joining in-flight fetches of {} hashes: {}", joinedFetches.size(), joinedFetches.keySet());
+        }
+
+        if (!claimedHashes.isEmpty()) {
+            FetchResult fetchResult = fetchAndStore(lookup, claimedHashes, onFound);
+            existingTransactions.addAll(fetchResult.getTransactions());
+            failedHashes.addAll(fetchResult.getFailedHashes());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(joinTimeoutMs);
+        for (Map.Entry<String, CompletableFuture<Transaction>> joined : joinedFetches.entrySet()) {
+            try {
+                Transaction transaction = joined.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (transaction != null) {
+                    existingTransactions.add(transaction);
+                    onFound.accept(List.of(transaction));
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                failedHashes.add(joined.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedHashes.add(joined.getKey());
+            }
+        }
+        int fromNode = existingTransactions.size() - foundBefore - lookup.storedMeanwhile;
+        countLookups(SOURCE_NODE, fromNode);
+        countLookups(SOURCE_FAILED, failedHashes.size());
+        countLookups(SOURCE_NOT_FOUND, Math.max(0, lookingHashes.size() - fromNode - failedHashes.size()));
     }
 
-    private static byte[] hexStringToByteArray(String hex) {
-        int len = hex.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4) + Character.digit(hex.charAt(i + 1), 16));
+    private FetchResult finish(Lookup lookup) {
+        if (lookup.user != null) {
+            linkToUser(lookup.user.getId(), lookup.transactions.stream().filter(t -> !lookup.linkedIds.contains(t.getId())).toList());
         }
-        return data;
+        return new FetchResult(lookup.transactions, lookup.failedHashes);
     }
 
-    static List<String> decodeRlpAndGetTransactions(String rlphex) {
-        byte[] rlpEncodedBytes = hexStringToByteArray(rlphex);
+    /**
+     * State of a lookup between the cache and DB lookup and the fetch from the blockchain, which may run on another thread.
+     */
+    private static final class Lookup {
+        private final AuthenticatedUser user;
+        private final List<Transaction> transactions;
+        private final Set<String> missingHashes;
+        private final Set<String> skippedDbHashes;
+        private final Set<String> failedHashes = new LinkedHashSet<>();
+        private final Set<Long> linkedIds = new HashSet<>();
+        private int storedMeanwhile;
 
-        RlpList rlpList = RlpDecoder.decode(rlpEncodedBytes);
-        List<String> transactionHashes = new ArrayList<>();
+        private Lookup(AuthenticatedUser user, List<Transaction> transactions, Set<String> missingHashes, Set<String> skippedDbHashes) {
+            this.user = user;
+            this.transactions = transactions;
+            this.missingHashes = missingHashes;
+            this.skippedDbHashes = skippedDbHashes;
+        }
+    }
+
+    /**
+     * Fetches claimed hashes from the blockchain and stores the transactions of every node call as soon as it completes,
+     * then hands the outcome of every claimed hash over to the callers which joined the fetch. Hashes which skipped the DB
+     * by the stored hash filter are looked up at the DB before they are reported as not found or failed.
+     */
+    private FetchResult fetchAndStore(Lookup lookup, List<String> claimedHashes, Consumer<Collection<Transaction>> onStored) {
+        Map<String, Transaction> stored = new HashMap<>();
+        Set<String> failedHashes = new LinkedHashSet<>(claimedHashes);
+        try {
+            log.debug("Looking transactions at blockchain for {} hashes: {}", claimedHashes.size(), claimedHashes);
 
-        RlpType mainElement = rlpList.getValues().get(0);
-        if (mainElement instanceof RlpList) {
-            RlpList mainList = (RlpList) mainElement;
-            for (RlpType rlpType : mainList.getValues()) {
-                if (rlpType instanceof RlpString) {
-                    RlpString rlpString = (RlpString) rlpType;
-                    transactionHashes.add(rlpString.asString());
+            FetchResult fetchResult = blockchainService.getTransactions(claimedHashes, fetched -> {
+                if (fetched.isEmpty()) {
+                    return;
+                }
+                log.debug("Received {} transactions from blockchain, go to store them", fetched.size());
+                Collection<Transaction> storedTransactions = store(fetched, lookup.user);
+                log.debug("Stored {} transactions", storedTransactions.size());
+                if (lookup.user != null) {
+                    storedTransactions.forEach(t -> lookup.linkedIds.add(t.getId()));
+                }
+                cache.putAll(storedTransactions);
+                storedHashes.putAll(storedTransactions);
+                storedTransactions.forEach(t -> stored.put(TransactionCache.normalize(t.getHash()), t));
+                blockPrefetcher.prefetchBlocksOf(storedTransactions);
+                onStored.accept(storedTransactions);
+            });
+            if (!fetchResult.getFailedHashes().isEmpty()) {
+                log.warn("Failed to fetch {} transactions from blockchain: {}", fetchResult.getFailedHashes().size(), fetchResult.getFailedHashes());
+            }
+            failedHashes = new LinkedHashSet<>(fetchResult.getFailedHashes());
+            findStoredMeanwhile(lookup, claimedHashes.stream().filter(hash -> !stored.containsKey(hash) && lookup.skippedDbHashes.contains(hash)).toList(),
+                    stored, failedHashes, onStored);
+            Set<String> fetchFailedHashes = failedHashes;
+            notFoundCache.putAll(claimedHashes.stream().filter(hash -> !stored.containsKey(hash) && !fetchFailedHashes.contains(hash)).toList());
+            return new FetchResult(stored.values(), failedHashes);
+        } finally {
+            for (String hash : claimedHashes) {
+                if (stored.containsKey(hash) || !failedHashes.contains(hash)) {
+                    inFlightFetches.complete(hash, stored.get(hash));
+                } else {
+                    inFlightFetches.fail(hash, new IllegalStateException("Failed to fetch transaction " + hash));
                 }
             }
-        } else {
-            throw new IllegalArgumentException("Wrong RLP format, exepected RlpList but got " + mainElement);
         }
+    }
 
-        return transactionHashes;
+    /**
+     * The stored hash filter does not know the transactions stored by other instances after it was loaded, the hashes it
+     * skipped at the DB and which the node did not return are taken from the DB.
+     */
+    private void findStoredMeanwhile(Lookup lookup, List<String> hashes, Map<String, Transaction> stored, Set<String> failedHashes,
+            Consumer<Collection<Transaction>> onStored) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        List<Transaction> storedTransactions = repository.findByHashIn(hashes);
+        if (storedTransactions.isEmpty()) {
+            return;
+        }
+        log.debug("Found {} transactions at DB stored after the stored hash filter was loaded", storedTransactions.size());
+        countLookups(SOURCE_DB, storedTransactions.size());
+        countStoredFilter(OUTCOME_STALE, storedTransactions.size());
+        lookup.storedMeanwhile += storedTransactions.size();
+        cache.putAll(storedTransactions);
+        storedHashes.putAll(storedTransactions);
+        for (Transaction t : storedTransactions) {
+            String hash = TransactionCache.normalize(t.getHash());
+            stored.put(hash, t);
+            failedHashes.remove(hash);
+        }
+        onStored.accept(storedTransactions);
     }
 
-    private List<Transaction> getFromBlockChain(Set<String> transactionHashes) throws IOException, TransactionException {
-        List<Transaction> transactions = new ArrayList<>();
-        for (String txHash : transactionHashes) {
-            org.web3j.protocol.core.methods.response.Transaction tx = web3j.ethGetTransactionByHash(txHash).send().getTransaction().orElse(null);
-            if (tx != null) {
-                TransactionReceipt txReceipt = web3j.ethGetTransactionReceipt(tx.getHash()).send().getTransactionReceipt().orElse(null);
-                Transaction ethereumTransaction = toEthereumTransaction(tx, txReceipt);
-                transactions.add(ethereumTransaction);
+    /**
+     * Inserts only the missing links of the user to the transactions, without loading the links the user already has.
+     */
+    private void linkToUser(Long userId, Collection<Transaction> transactions) {
+        List<Long> trxIds = transactions.stream().map(Transaction::getId).filter(Objects::nonNull).distinct().toList();
+        for (int from = 0; from < trxIds.size(); from += LINK_CHUNK_SIZE) {
+            List<Long> chunk = trxIds.subList(from, Math.min(from + LINK_CHUNK_SIZE, trxIds.size()));
+            int linked;
+            try {
+                linked = repository.linkToUser(userId, chunk);
+            } catch (DataIntegrityViolationException de) {
+                // a concurrent request of the same user inserted some of the links, the retry skips them
+                meterRegistry.counter(METRIC_STORE_CONFLICTS, TAG_OPERATION, OPERATION_LINK).increment();
+                linked = repository.linkToUser(userId, chunk);
             }
+            log.debug("Linked {} new transactions to user {}", linked, userId);
         }
-        return transactions;
     }
 
-    private static Transaction toEthereumTransaction(org.web3j.protocol.core.methods.response.Transaction tx, TransactionReceipt txReceipt)
-            throws IOException, TransactionException {
-        boolean transactionStatus = txReceipt != null && txReceipt.isStatusOK() ? true : false;
-        int logsCount = txReceipt != null ? txReceipt.getLogs().size() : 0;
-        return new Transaction(tx.getHash(), transactionStatus, tx.getBlockHash(), tx.getBlockNumber(), tx.getFrom(), tx.getTo(), tx.getCreates(), logsCount,
-                tx.getInput(), tx.getValue(), null);
+    /**
+     * Inserts the transactions which are not stored yet and links all of them to the user, in one transaction. Stored
+     * transactions are skipped, only those stored by another instance between the lookup and the insert of the batch fail
+     * it on {@value Transaction#UQ_TRANSACTION_HASH}, then the batch is stored once again and the retry skips them.
+     *
+     * @return stored transactions, those stored before as read from the DB
+     */
+    private List<Transaction> store(List<Transaction> transactions, AuthenticatedUser user) {
+        Long userId = user != null ? user.getId() : null;
+        try {
+            return repository.saveMissingAndLink(transactions, userId);
+        } catch (DataIntegrityViolationException de) {
+            meterRegistry.counter(METRIC_STORE_CONFLICTS, TAG_OPERATION, OPERATION_INSERT).increment();
+            log.debug("Transactions stored concurrently, storing the rest, reason: {}", de.getMessage());
+            // the failed insert already assigned ids, store fresh copies
+            return repository.saveMissingAndLink(transactions.stream().map(TransactionService::copyOf).toList(), userId);
+        }
+    }
+
+    private static Transaction copyOf(Transaction t) {
+        return new Transaction(t.getHash(), t.getStatus(), t.getBlockHash(), t.getBlockNumber(), t.getFrom(), t.getTo(), t.getContractAddress(), t.getLogsCount(),
+                t.getInput(), t.getValue(), null);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the payload is not a hex encoded RLP list of transaction hashes
+     */
+    public static List<String> decodeRlpAndGetTransactions(String rlphex) {
+        return RlpHashDecoder.decodeHashList(rlphex);
+    }
+
+    /**
+     * Receives the transactions of a streamed lookup.
+     */
+    @FunctionalInterface
+    public interface TransactionSink {
+        void accept(Collection<Transaction> transactions) throws IOException;
     }
 
 }
@@ -0,0 +1,96 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import limechain.ethereum_fetcher.dto.LookupSummaryDto;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.util.Hex;
+
+/**
+ * Writes the result of a lookup while it progresses, see {@link TransactionService#streamByHashList}: every transaction
+ * is flushed to the client as soon as it is found, so the stored transactions are not held back by the slowest node
+ * call. The last record is a {@link LookupSummaryDto} with the hashes which were not found, hashes are compared in
+ * their {@link Hex#normalize} form, the same the service looks them up by.
+ */
+@Service
+public class TransactionStreamer {
+
+    public enum Format {
+        /** Newline delimited JSON, one transaction per line. */
+        NDJSON,
+        /** Server-sent events {@code transaction} with a transaction each, then the event {@code summary}. */
+        SSE
+    }
+
+    static final String EVENT_TRANSACTION = "transaction";
+    static final String EVENT_SUMMARY = "summary";
+
+    private final TransactionService service;
+    private final ObjectWriter transactionWriter;
+    private final ObjectWriter summaryWriter;
+
+    public TransactionStreamer(TransactionService service, ObjectMapper objectMapper) {
+        this.service = service;
+        this.transactionWriter = objectMapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.summaryWriter = objectMapper.writerFor(LookupSummaryDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return number of found transactions
+     */
+    public long stream(List<String> hashes, Format format, OutputStream out) throws IOException {
+        Set<String> foundHashes = new HashSet<>();
+        try (JsonGenerator generator = transactionWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            FetchResult result = service.streamByHashList(hashes, transactions -> {
+                for (Transaction transaction : transactions) {
+                    if (foundHashes.add(Hex.normalize(transaction.getHash()))) {
+                        writeRecord(generator, format, EVENT_TRANSACTION, transactionWriter, transaction);
+                    }
+                }
+                generator.flush();
+            });
+
+            Set<String> notFoundHashes = new LinkedHashSet<>();
+            Set<String> malformedHashes = new LinkedHashSet<>();
+            for (String hash : hashes) {
+                String trimmed = hash.trim();
+                if (!Hex.isHex(trimmed)) {
+                    // skipped by the lookup, not found would tell the client the hash is unknown to the chain
+                    malformedHashes.add(trimmed);
+                    continue;
+                }
+                String normalized = Hex.normalize(trimmed);
+                if (!foundHashes.contains(normalized) && !result.getFailedHashes().contains(normalized)) {
+                    notFoundHashes.add(normalized);
+                }
+            }
+            writeRecord(generator, format, EVENT_SUMMARY, summaryWriter, new LookupSummaryDto(notFoundHashes, result.getFailedHashes(), malformedHashes));
+        }
+        return foundHashes.size();
+    }
+
+    private static void writeRecord(JsonGenerator generator, Format format, String event, ObjectWriter writer, Object value) throws IOException {
+        if (format == Format.SSE) {
+            generator.writeRaw("event: " + event + "\ndata: ");
+            writer.writeValue(generator, value);
+            generator.writeRaw("\n\n");
+        } else {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        }
+    }
+}
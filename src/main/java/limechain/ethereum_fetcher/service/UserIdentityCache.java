@@ -0,0 +1,42 @@
+package limechain.ethereum_fetcher.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import limechain.ethereum_fetcher.repository.UserRepository;
+
+/**
+ * User ids by username for tokens issued without the user id claim, kept for {@code security.user-id-cache.ttl-ms}.
+ * Unknown usernames are not cached.
+ */
+@Component
+public class UserIdentityCache {
+
+    private static final String MAX_SIZE = "${security.user-id-cache.max-size:1000}";
+    private static final String TTL_MS = "${security.user-id-cache.ttl-ms:300000}";
+
+    private final UserRepository userRepository;
+    private final Cache<String, Long> userIds;
+
+    public UserIdentityCache(UserRepository userRepository, @Value(MAX_SIZE) long maxSize, @Value(TTL_MS) long ttlMs) {
+        this.userRepository = userRepository;
+        this.userIds = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(Duration.ofMillis(ttlMs)).build();
+    }
+
+    public Optional<Long> findUserId(String username) {
+        Long userId = userIds.getIfPresent(username);
+        if (userId == null) {
+            userId = userRepository.findIdByUsername(username).orElse(null);
+            if (userId != null) {
+                userIds.put(username, userId);
+            }
+        }
+        return Optional.ofNullable(userId);
+    }
+}
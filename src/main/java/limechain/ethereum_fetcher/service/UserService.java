@@ -1,11 +1,7 @@
 package limechain.ethereum_fetcher.service;
 
-import java.util.List;
-
 import org.springframework.stereotype.Service;
 
-import limechain.ethereum_fetcher.model.Transaction;
-import limechain.ethereum_fetcher.model.User;
 import limechain.ethereum_fetcher.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 
@@ -14,8 +10,9 @@ import lombok.RequiredArgsConstructor;
 public class UserService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionPager pager;
 
-    public List<Transaction> usersTransactions(User user) {
-        return transactionRepository.findTransactionsByUser(user);
+    public TransactionPage usersTransactions(Long userId, String after, Integer limit) {
+        return pager.page(after, limit, (afterId, pageable) -> transactionRepository.findTransactionsByUserAfter(userId, afterId, pageable));
     }
 }
@@ -0,0 +1,116 @@
+package limechain.ethereum_fetcher.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Table based conversion between {@code 0x} prefixed hex strings and bytes.
+ */
+public final class Hex {
+
+    public static final int HASH_BYTES = 32;
+    public static final int ADDRESS_BYTES = 20;
+    public static final String PREFIX = "0x";
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private Hex() {
+    }
+
+    /**
+     * @param hex hex string, with or without {@code 0x} prefix, in any case
+     * @throws IllegalArgumentException if the string has odd length or a non hex character
+     */
+    public static byte[] decode(CharSequence hex) {
+        int from = prefixLength(hex);
+        int length = hex.length() - from;
+        if (length % 2 != 0) {
+            throw new IllegalArgumentException("Odd length hex string of " + hex.length() + " characters");
+        }
+        byte[] bytes = new byte[length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = value(hex.charAt(from + 2 * i));
+            int low = value(hex.charAt(from + 2 * i + 1));
+            if ((high | low) < 0) {
+                throw new IllegalArgumentException("Non hex character at position " + (from + 2 * i));
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return lower case hex string with {@code 0x} prefix
+     */
+    public static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return lower case hex string with {@code 0x} prefix of {@code length} bytes starting at {@code offset}
+     */
+    public static String encode(byte[] bytes, int offset, int length) {
+        char[] chars = new char[PREFIX.length() + 2 * length];
+        chars[0] = '0';
+        chars[1] = 'x';
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i];
+            chars[PREFIX.length() + 2 * i] = DIGITS[(b >> 4) & 0xf];
+            chars[PREFIX.length() + 2 * i + 1] = DIGITS[b & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the hex string in the form {@link #encode(byte[])} gives, lower case with {@code 0x} prefix
+     */
+    public static String normalize(String hex) {
+        return PREFIX + hex.substring(prefixLength(hex)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return whether the string can be decoded by {@link #decode(CharSequence)}
+     */
+    public static boolean isHex(CharSequence hex) {
+        int from = prefixLength(hex);
+        if ((hex.length() - from) % 2 != 0) {
+            return false;
+        }
+        for (int i = from; i < hex.length(); i++) {
+            if (value(hex.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 2 if the string starts with {@code 0x} prefix, 0 otherwise
+     */
+    public static int prefixLength(CharSequence hex) {
+        return hex.length() >= 2 && hex.charAt(0) == '0' && (hex.charAt(1) == 'x' || hex.charAt(1) == 'X') ? 2 : 0;
+    }
+
+    /**
+     * @return value of the hex digit, -1 if the character is not a hex digit
+     */
+    public static int value(char c) {
+        return c < VALUES.length ? VALUES[c] : -1;
+    }
+
+    /**
+     * @return lower case hex digit of the value
+     */
+    public static char digit(int value) {
+        return DIGITS[value];
+    }
+}
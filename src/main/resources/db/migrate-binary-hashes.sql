@@ -0,0 +1,22 @@
+-- Converts the hex TEXT columns of table transaction into bytea, see README "Binary storage of hashes".
+-- Run once with the server stopped: psql -d postgres -f migrate-binary-hashes.sql
+
+-- size of the table and of the unique hash index before the migration
+SELECT pg_size_pretty(pg_total_relation_size('transaction')) AS table_size, pg_size_pretty(pg_relation_size('uq_hash')) AS index_size;
+
+BEGIN;
+
+ALTER TABLE transaction
+    ALTER COLUMN hash TYPE bytea USING decode(substring(hash FROM 3), 'hex'),
+    ALTER COLUMN block_hash TYPE bytea USING decode(substring(block_hash FROM 3), 'hex'),
+    ALTER COLUMN from_ TYPE bytea USING decode(substring(from_ FROM 3), 'hex'),
+    ALTER COLUMN to_ TYPE bytea USING decode(substring(to_ FROM 3), 'hex'),
+    ALTER COLUMN contract_address TYPE bytea USING decode(substring(contract_address FROM 3), 'hex'),
+    ALTER COLUMN input TYPE bytea USING decode(substring(input FROM 3), 'hex');
+
+COMMIT;
+
+VACUUM FULL ANALYZE transaction;
+
+-- size of the table and of the unique hash index after the migration
+SELECT pg_size_pretty(pg_total_relation_size('transaction')) AS table_size, pg_size_pretty(pg_relation_size('uq_hash')) AS index_size;
@@ -0,0 +1,7 @@
+-- Sets the finality of the transactions stored by older versions, see README "Confirmation tracking".
+-- Run once after the first start of the new version, which adds the column and its index: psql -d postgres -f migrate-finality.sql
+-- Stored transactions become pending or provisional, the verification job then promotes the confirmed ones to final.
+
+UPDATE transaction SET finality = CASE WHEN block_number IS NULL THEN 'PENDING' ELSE 'PROVISIONAL' END WHERE finality IS NULL;
+
+ANALYZE transaction;
@@ -0,0 +1,23 @@
+-- Adds the composite primary key (user_id, trx_id) to table user_transactions, see README "Links of users to transactions".
+-- Run once: psql -d postgres -f migrate-user-links.sql
+-- Databases created by older versions have no key on the links, so concurrent lookups of a user could insert a link twice.
+
+BEGIN;
+
+-- serializes with the lookups linking meanwhile
+LOCK TABLE user_transactions IN SHARE ROW EXCLUSIVE MODE;
+
+-- keeps one row of every duplicated link
+DELETE FROM user_transactions a USING user_transactions b
+WHERE a.user_id = b.user_id AND a.trx_id = b.trx_id AND a.ctid > b.ctid;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'user_transactions'::regclass AND contype = 'p') THEN
+        ALTER TABLE user_transactions ADD PRIMARY KEY (user_id, trx_id);
+    END IF;
+END $$;
+
+COMMIT;
+
+ANALYZE user_transactions;
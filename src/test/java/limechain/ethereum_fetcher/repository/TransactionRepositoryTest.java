@@ -7,11 +7,17 @@ import java.math.BigInteger;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import limechain.ethereum_fetcher.model.Transaction;
 import limechain.ethereum_fetcher.model.User;
@@ -19,15 +25,18 @@ import limechain.ethereum_fetcher.model.User;
 @DataJpaTest
 public class TransactionRepositoryTest {
 
-    private static final String HASH1 = "hash1";
-    private static final String HASH2 = "hash2";
-    private static final String HASH3 = "hash3";
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String ADDRESS = String.format("0x%040x", 1);
     private static final int logsCount = 5;
     private static final String ALICE = "alice";
     @Autowired
     private TransactionRepository transactionRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
 
     @BeforeEach
     void clean() {
@@ -35,6 +44,14 @@ public class TransactionRepositoryTest {
         transactionRepository.flush();
     }
 
+    /**
+     * saveAllNew inserts in its own transaction, which is committed instead of rolled back with the test.
+     */
+    @AfterTransaction
+    void cleanCommitted() {
+        transactionRepository.deleteAllInBatch();
+    }
+
     @Test
     public void testFindByHash() {
         transactionRepository.save(createTransaction(HASH1));
@@ -55,7 +72,7 @@ public class TransactionRepositoryTest {
         transactionRepository.save(createTransaction(HASH2));
         transactionRepository.save(createTransaction(HASH3));
 
-        List<Transaction> transactions = transactionRepository.findByHashIn(List.of(HASH1 + HASH2));
+        List<Transaction> transactions = transactionRepository.findByHashIn(List.of(String.format("0x%064x", 4)));
 
         assertThat(transactions).isNotNull();
         assertThat(transactions).hasSize(0);
@@ -63,13 +80,51 @@ public class TransactionRepositoryTest {
     }
 
     @Test
-    public void testSaveFailDuplicate() {
-        transactionRepository.saveOne(createTransaction(HASH1));
+    public void testFindByHashIgnoresCase() {
+        String mixedCaseHash = "0xAbCd" + HASH1.substring(6);
+        Transaction stored = transactionRepository.saveAndFlush(createTransaction(mixedCaseHash));
+        assertThat(stored.getHash()).isEqualTo(mixedCaseHash.toLowerCase());
+        entityManager.clear();
+
+        List<Transaction> transactions = transactionRepository.findByHashIn(List.of(mixedCaseHash.toUpperCase()));
+
+        assertThat(transactions).extracting(Transaction::getHash).containsExactly(mixedCaseHash.toLowerCase());
+    }
+
+    @Test
+    public void testSaveAllNew() {
+        transactionRepository.saveAllNew(List.of(createTransaction(HASH1), createTransaction(HASH2), createTransaction(HASH3)));
+
+        assertThat(transactionRepository.findByHashIn(List.of(HASH1, HASH2, HASH3))).hasSize(3);
+    }
+
+    @Test
+    public void testSaveAllNewFailDuplicate() {
+        // committed, the own transaction of saveAllNew would wait for the lock of a row inserted by the test transaction
+        transactionRepository.saveAllNew(List.of(createTransaction(HASH2)));
         assertThrows(DataIntegrityViolationException.class, () -> {
-            transactionRepository.saveOne(createTransaction(HASH1));
+            transactionRepository.saveAllNew(List.of(createTransaction(HASH1), createTransaction(HASH2)));
         });
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testSaveMissingAndLinkSkipsStored() {
+        // committed, saveMissingAndLink looks them up in its own transaction
+        User alice = userRepository.save(new User(ALICE, ALICE, null));
+        Transaction stored = transactionRepository.save(createTransaction(HASH1));
+        try {
+            List<Transaction> result = transactionRepository.saveMissingAndLink(List.of(createTransaction(HASH1), createTransaction(HASH2)), alice.getId());
+
+            assertThat(result).extracting(Transaction::getHash).containsExactly(HASH1, HASH2);
+            assertThat(result.get(0).getId()).isEqualTo(stored.getId());
+            assertThat(transactionRepository.findTransactionsByUser(alice)).extracting(Transaction::getHash).containsExactlyInAnyOrder(HASH1, HASH2);
+        } finally {
+            userRepository.deleteAll();
+            transactionRepository.deleteAllInBatch();
+        }
+    }
+
     @Test
     public void testFoundTransactionsByUser() {
         User user = userRepository.save(new User(ALICE, ALICE, Set.of(
@@ -101,8 +156,58 @@ public class TransactionRepositoryTest {
 
     }
 
+    @Test
+    public void testLinkToUserSkipsExistingLinks() {
+        Transaction trx1 = transactionRepository.save(createTransaction(HASH1));
+        Transaction trx2 = transactionRepository.save(createTransaction(HASH2));
+        User alice = userRepository.saveAndFlush(new User(ALICE, ALICE, Set.of(trx1)));
+
+        int linked = transactionRepository.insertUserLinks(alice.getId(), List.of(trx1.getId(), trx2.getId()));
+
+        assertThat(linked).isEqualTo(1);
+        assertThat(transactionRepository.findTransactionsByUser(alice)).extracting(Transaction::getHash).containsExactlyInAnyOrder(HASH1, HASH2);
+    }
+
+    @Test
+    public void testUserLinkIsUnique() {
+        Transaction trx1 = transactionRepository.save(createTransaction(HASH1));
+        User alice = userRepository.saveAndFlush(new User(ALICE, ALICE, Set.of(trx1)));
+
+        // the composite primary key of the join table, added to older databases by migrate-user-links.sql
+        assertThrows(ConstraintViolationException.class, () -> {
+            entityManager.getEntityManager().createNativeQuery("INSERT INTO user_transactions (user_id, trx_id) VALUES (:userId, :trxId)")
+                    .setParameter("userId", alice.getId()).setParameter("trxId", trx1.getId()).executeUpdate();
+        });
+    }
+
+    @Test
+    public void testFindByIdGreaterThan() {
+        Transaction trx1 = transactionRepository.save(createTransaction(HASH1));
+        transactionRepository.save(createTransaction(HASH2));
+        transactionRepository.save(createTransaction(HASH3));
+
+        List<Transaction> firstPage = transactionRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        List<Transaction> nextPage = transactionRepository.findByIdGreaterThanOrderByIdAsc(trx1.getId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage).extracting(Transaction::getHash).containsExactly(HASH1, HASH2);
+        assertThat(nextPage).extracting(Transaction::getHash).containsExactly(HASH2, HASH3);
+    }
+
+    @Test
+    public void testFindTransactionsByUserAfter() {
+        Transaction trx1 = transactionRepository.save(createTransaction(HASH1));
+        Transaction trx2 = transactionRepository.save(createTransaction(HASH2));
+        Transaction trx3 = transactionRepository.save(createTransaction(HASH3));
+        User alice = userRepository.saveAndFlush(new User(ALICE, ALICE, Set.of(trx1, trx3)));
+        userRepository.saveAndFlush(new User("bob", "bob", Set.of(trx2)));
+
+        List<Transaction> transactions = transactionRepository.findTransactionsByUserAfter(alice.getId(), trx1.getId(), PageRequest.of(0, 10));
+
+        assertThat(transactions).extracting(Transaction::getHash).containsExactly(HASH3);
+    }
+
     private Transaction createTransaction(String hash) {
-        return new Transaction(hash, Boolean.TRUE, hash, BigInteger.TWO, hash, hash, hash, logsCount, hash, BigInteger.TEN, null);
+        return new Transaction(hash, Boolean.TRUE, hash, BigInteger.TWO, ADDRESS, ADDRESS, null, logsCount, "0x", BigInteger.TEN, null);
     }
 
 }
@@ -25,6 +25,13 @@ public class UserRepositoryTest {
         assertThat(foundUser.getUsername()).isEqualTo(ALICE);
     }
 
+    @Test
+    public void testFindIdByUsername() {
+        User savedUser = userRepository.save(new User(ALICE, ALICE, null));
+        assertThat(userRepository.findIdByUsername(ALICE)).contains(savedUser.getId());
+        assertThat(userRepository.findIdByUsername("bob")).isEmpty();
+    }
+
     @Test
     public void testSaveAndFindUser() {
         User savedUser = userRepository.save(new User(ALICE, ALICE, null));
@@ -0,0 +1,124 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+public class BlockPrefetcherTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String BLOCK_HASH = String.format("0x%064x", 100);
+    private static final BigInteger BLOCK_NUMBER = BigInteger.valueOf(100);
+    private static final int MAX_AGE_BLOCKS = 10;
+    private static final int MAX_TRANSACTIONS = 500;
+
+    @Mock
+    private BlockchainService blockchainService;
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Transaction>> stored;
+
+    private TransactionCache transactionCache;
+    private NotFoundCache notFoundCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionCache = new TransactionCache(1024 * 1024, 5000);
+        notFoundCache = new NotFoundCache(5000, 1000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testMissingTransactionsOfBlockStored() throws Exception {
+        when(blockchainService.getBlockNumber()).thenReturn(BLOCK_NUMBER.add(BigInteger.ONE));
+        when(blockchainService.getBlockTransactions(BLOCK_NUMBER, BLOCK_HASH, MAX_TRANSACTIONS))
+                .thenReturn(List.of(createTransaction(HASH1), createTransaction(HASH2), createTransaction(HASH3)));
+        when(transactionRepository.saveMissing(any())).thenReturn(List.of(createTransaction(HASH2), createTransaction(HASH3)));
+        notFoundCache.putAll(List.of(HASH2));
+
+        prefetcher(true).prefetchBlocksOf(List.of(createTransaction(HASH1)));
+
+        verify(transactionRepository).saveMissing(stored.capture());
+        assertThat(stored.getValue()).extracting(Transaction::getHash).containsExactly(HASH1, HASH2, HASH3);
+        assertThat(transactionCache.getAll(List.of(HASH2, HASH3))).hasSize(2);
+        assertThat(notFoundCache.contains(HASH2)).isFalse();
+        assertThat(meterRegistry.get("transactions.prefetched").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBlockPrefetchedOnce() throws Exception {
+        when(blockchainService.getBlockNumber()).thenReturn(BLOCK_NUMBER);
+        when(blockchainService.getBlockTransactions(BLOCK_NUMBER, BLOCK_HASH, MAX_TRANSACTIONS)).thenReturn(List.of());
+        BlockPrefetcher prefetcher = prefetcher(true);
+
+        prefetcher.prefetchBlocksOf(List.of(createTransaction(HASH1), createTransaction(HASH2)));
+        prefetcher.prefetchBlocksOf(List.of(createTransaction(HASH3)));
+
+        verify(blockchainService, times(1)).getBlockTransactions(any(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testOldBlockNotPrefetched() throws Exception {
+        when(blockchainService.getBlockNumber()).thenReturn(BLOCK_NUMBER.add(BigInteger.valueOf(MAX_AGE_BLOCKS + 1)));
+
+        prefetcher(true).prefetchBlocksOf(List.of(createTransaction(HASH1)));
+
+        verify(blockchainService, never()).getBlockTransactions(any(), anyString(), anyInt());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    public void testFailedBlockPrefetchedAgain() throws Exception {
+        when(blockchainService.getBlockNumber()).thenReturn(BLOCK_NUMBER);
+        when(blockchainService.getBlockTransactions(BLOCK_NUMBER, BLOCK_HASH, MAX_TRANSACTIONS)).thenThrow(new IllegalStateException("node down"));
+        BlockPrefetcher prefetcher = prefetcher(true);
+
+        prefetcher.prefetchBlocksOf(List.of(createTransaction(HASH1)));
+        prefetcher.prefetchBlocksOf(List.of(createTransaction(HASH1)));
+
+        verify(blockchainService, times(2)).getBlockTransactions(eq(BLOCK_NUMBER), anyString(), anyInt());
+    }
+
+    @Test
+    public void testDisabled() {
+        prefetcher(false).prefetchBlocksOf(List.of(createTransaction(HASH1)));
+
+        verifyNoInteractions(blockchainService, transactionRepository);
+    }
+
+    private BlockPrefetcher prefetcher(boolean enabled) {
+        return new BlockPrefetcher(blockchainService, transactionRepository, transactionCache,
+                new StoredHashFilter(transactionRepository, false, 0, 0.01, 0), notFoundCache, Runnable::run, enabled, MAX_AGE_BLOCKS, MAX_TRANSACTIONS,
+                meterRegistry);
+    }
+
+    private static Transaction createTransaction(String hash) {
+        return new Transaction(hash, true, BLOCK_HASH, BLOCK_NUMBER, null, null, null, 0, null, BigInteger.ONE, null);
+    }
+}
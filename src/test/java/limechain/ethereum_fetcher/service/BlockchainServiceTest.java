@@ -0,0 +1,174 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.model.Transaction;
+
+public class BlockchainServiceTest {
+    private static final int BATCH_SIZE = 2;
+    private static final int FETCH_THREADS = 4;
+    private static final long FETCH_TIMEOUT_MS = 5000;
+    private static final int LOGS_COUNT = 3;
+    private static final String UNKNOWN_HASH = String.format("0x%064x", 999);
+
+    private StubEthereumNode node;
+    private ExecutorService executor;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private List<String> hashes;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        node = new StubEthereumNode();
+        executor = Executors.newFixedThreadPool(FETCH_THREADS);
+        hashes = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            String hash = String.format("0x%064x", i);
+            node.addTransaction(hash, 100 + i, LOGS_COUNT);
+            hashes.add(hash);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        node.close();
+    }
+
+    @Test
+    public void testBatchesCorrelatedByRequestId() {
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        FetchResult result = service.getTransactions(hashes);
+
+        Collection<Transaction> transactions = result.getTransactions();
+        assertThat(transactions).extracting(Transaction::getHash).containsExactlyInAnyOrderElementsOf(hashes);
+        assertThat(result.getFailedHashes()).isEmpty();
+        Transaction trx = transactions.stream().filter(t -> t.getHash().equals(hashes.get(0))).findFirst().orElseThrow();
+        assertThat(trx.getBlockNumber()).isEqualTo(BigInteger.valueOf(101));
+        assertThat(trx.getLogsCount()).isEqualTo(LOGS_COUNT);
+        assertThat(trx.getStatus()).isTrue();
+        // 3 batches of transactions and 3 batches of receipts instead of 10 single calls
+        assertThat(node.httpRequests()).isEqualTo(6);
+        // the last chunk holds a single hash and goes without batch
+        assertThat(meterRegistry.get("ethereum.node.requests").tag("method", "eth_getTransactionByHash").tag("batch", "true").timer().count())
+                .isEqualTo(2);
+        assertThat(service.isBatchSupported()).isTrue();
+    }
+
+    @Test
+    public void testUnknownHashSkipped() {
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        FetchResult result = service.getTransactions(List.of(hashes.get(0), UNKNOWN_HASH));
+
+        assertThat(result.getTransactions()).extracting(Transaction::getHash).containsExactly(hashes.get(0));
+        assertThat(result.getFailedHashes()).isEmpty();
+        assertThat(node.calls("eth_getTransactionReceipt")).isEqualTo(1);
+    }
+
+    @Test
+    public void testFallbackToPerCallWhenBatchRejected() {
+        node.setRejectBatches(true);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        FetchResult result = service.getTransactions(hashes);
+
+        assertThat(result.getTransactions()).extracting(Transaction::getHash).containsExactlyInAnyOrderElementsOf(hashes);
+        assertThat(service.isBatchSupported()).isFalse();
+
+        node.resetCounters();
+        service.getTransactions(hashes);
+        assertThat(node.httpRequests()).isEqualTo(2 * hashes.size());
+    }
+
+    @Test
+    public void testBatchModeKeptWhenBatchFails() {
+        node.setFailingBatches(1);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        FetchResult result = service.getTransactions(hashes);
+
+        assertThat(result.getTransactions()).extracting(Transaction::getHash).containsExactlyInAnyOrderElementsOf(hashes);
+        assertThat(result.getFailedHashes()).isEmpty();
+        assertThat(service.isBatchSupported()).isTrue();
+    }
+
+    @Test
+    public void testBlockTransactionsWithBlockReceipts() throws Exception {
+        String sameBlockHash = String.format("0x%064x", 6);
+        node.addTransaction(sameBlockHash, 101, LOGS_COUNT);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        List<Transaction> transactions = service.getBlockTransactions(BigInteger.valueOf(101), blockHash(101), 10);
+
+        assertThat(transactions).extracting(Transaction::getHash).containsExactly(hashes.get(0), sameBlockHash);
+        assertThat(transactions).extracting(Transaction::getLogsCount).containsOnly(LOGS_COUNT);
+        assertThat(node.calls("eth_getBlockReceipts")).isEqualTo(1);
+        assertThat(node.calls("eth_getTransactionReceipt")).isZero();
+        assertThat(service.getBlockNumber()).isEqualTo(BigInteger.valueOf(105));
+    }
+
+    @Test
+    public void testBlockReceiptsFallbackToReceiptPerTransaction() throws Exception {
+        node.addTransaction(String.format("0x%064x", 6), 101, LOGS_COUNT);
+        node.setBlockReceiptsSupported(false);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        List<Transaction> transactions = service.getBlockTransactions(BigInteger.valueOf(101), blockHash(101), 10);
+
+        assertThat(transactions).hasSize(2).extracting(Transaction::getStatus).containsOnly(true);
+        assertThat(service.isBlockReceiptsSupported()).isFalse();
+        assertThat(node.calls("eth_getTransactionReceipt")).isEqualTo(2);
+    }
+
+    @Test
+    public void testBlockSkippedWhenTooBigOrReorged() throws Exception {
+        node.addTransaction(String.format("0x%064x", 6), 101, LOGS_COUNT);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        assertThat(service.getBlockTransactions(BigInteger.valueOf(101), blockHash(101), 1)).isEmpty();
+        assertThat(service.getBlockTransactions(BigInteger.valueOf(101), blockHash(102), 10)).isEmpty();
+        assertThat(service.getBlockTransactions(BigInteger.valueOf(200), blockHash(200), 10)).isEmpty();
+        assertThat(node.calls("eth_getBlockReceipts")).isZero();
+    }
+
+    @Test
+    public void testSlowNodeReportedAsFailedHashes() {
+        node.setDelayMillis(1000);
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), 1, executor, 200, meterRegistry);
+
+        FetchResult result = service.getTransactions(hashes);
+
+        assertThat(result.getTransactions()).isEmpty();
+        assertThat(result.getFailedHashes()).containsExactlyInAnyOrderElementsOf(hashes);
+    }
+
+    @Test
+    public void testUnreachableNodeReportedAsFailedHashes() {
+        String url = node.url();
+        node.close();
+        BlockchainService service = new BlockchainService(NodePool.of(List.of(url), meterRegistry), BATCH_SIZE, executor, FETCH_TIMEOUT_MS, meterRegistry);
+
+        FetchResult result = service.getTransactions(hashes);
+
+        assertThat(result.getTransactions()).isEmpty();
+        assertThat(result.getFailedHashes()).containsExactlyInAnyOrderElementsOf(hashes);
+    }
+
+    private static String blockHash(long blockNumber) {
+        return String.format("0x%064x", blockNumber);
+    }
+}
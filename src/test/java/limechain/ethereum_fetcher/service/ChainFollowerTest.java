@@ -0,0 +1,127 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.SyncCheckpoint;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.SyncCheckpointRepository;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChainFollowerTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String HASH4 = String.format("0x%064x", 4);
+    private static final int REORG_REWIND_BLOCKS = 12;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private SyncCheckpointRepository checkpointRepository;
+
+    private StubEthereumNode node;
+    private ExecutorService executor;
+    private BlockchainService blockchainService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        transactionRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        node = new StubEthereumNode();
+        node.addTransaction(HASH1, 101, 1);
+        node.addTransaction(HASH2, 101, 1);
+        node.addTransaction(HASH3, 102, 1);
+        node.setHead(103);
+        executor = Executors.newSingleThreadExecutor();
+        blockchainService = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), 10, executor, 5000, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        node.close();
+    }
+
+    @Test
+    public void testFollowsFromCheckpointAfterRestart() throws Exception {
+        assertThat(follower(101, 2).follow()).isEqualTo(2);
+
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getHash).containsExactlyInAnyOrder(HASH1, HASH2, HASH3);
+        SyncCheckpoint checkpoint = checkpointRepository.findByName(ChainFollower.CHECKPOINT_NAME).orElseThrow();
+        assertThat(checkpoint.getBlockNumber()).isEqualTo(BigInteger.valueOf(102));
+        assertThat(checkpoint.getBlockHash()).isEqualTo(String.format("0x%064x", 102));
+
+        node.addTransaction(HASH4, 104, 1);
+        assertThat(follower(101, 2).follow()).isEqualTo(2);
+
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getHash).containsExactlyInAnyOrder(HASH1, HASH2, HASH3, HASH4);
+        assertThat(checkpointRepository.findByName(ChainFollower.CHECKPOINT_NAME).orElseThrow().getBlockNumber()).isEqualTo(BigInteger.valueOf(104));
+        assertThat(follower(101, 2).follow()).isZero();
+    }
+
+    @Test
+    public void testStartsAtHeadWithoutCheckpoint() throws Exception {
+        node.setHead(102);
+
+        assertThat(follower(-1, 100).follow()).isEqualTo(1);
+
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getHash).containsExactly(HASH3);
+    }
+
+    @Test
+    public void testRewindsOnReorg() throws Exception {
+        checkpointRepository.save(new SyncCheckpoint(ChainFollower.CHECKPOINT_NAME, BigInteger.valueOf(102), String.format("0x%064x", 999)));
+
+        assertThat(follower(101, 100).follow()).isZero();
+
+        SyncCheckpoint checkpoint = checkpointRepository.findByName(ChainFollower.CHECKPOINT_NAME).orElseThrow();
+        assertThat(checkpoint.getBlockNumber()).isEqualTo(BigInteger.valueOf(102 - REORG_REWIND_BLOCKS));
+        assertThat(checkpoint.getBlockHash()).isNull();
+    }
+
+    @Test
+    public void testRewindDemotesFinalAndMovesStoredTransactionsToCurrentBlock() throws Exception {
+        String orphanedBlockHash = String.format("0x%064x", 998);
+        transactionRepository.save(new Transaction(HASH3, true, orphanedBlockHash, BigInteger.valueOf(102), null, null, null, 0, "0x", BigInteger.ONE, null,
+                Finality.FINAL));
+        checkpointRepository.save(new SyncCheckpoint(ChainFollower.CHECKPOINT_NAME, BigInteger.valueOf(102), orphanedBlockHash));
+
+        assertThat(follower(101, 100).follow()).isZero();
+
+        Transaction demoted = transactionRepository.findByHashIn(List.of(HASH3)).get(0);
+        assertThat(demoted.getFinality()).isEqualTo(Finality.PROVISIONAL);
+        assertThat(demoted.getBlockHash()).isEqualTo(orphanedBlockHash);
+
+        follower(101, 100).follow();
+
+        Transaction moved = transactionRepository.findByHashIn(List.of(HASH3)).get(0);
+        assertThat(moved.getBlockHash()).isEqualTo(String.format("0x%064x", 102));
+        assertThat(moved.getFinality()).isEqualTo(Finality.PROVISIONAL);
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getHash).containsExactlyInAnyOrder(HASH1, HASH2, HASH3);
+    }
+
+    private ChainFollower follower(long startBlock, int maxBlocksPerPoll) {
+        return new ChainFollower(blockchainService, transactionRepository, checkpointRepository, new TransactionCache(1024 * 1024, 5000),
+                new StoredHashFilter(transactionRepository, false, 0, 0.01, 0), new NotFoundCache(5000, 1000), startBlock,
+                maxBlocksPerPoll, REORG_REWIND_BLOCKS, meterRegistry);
+    }
+}
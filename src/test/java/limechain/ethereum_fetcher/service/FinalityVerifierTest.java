@@ -0,0 +1,114 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FinalityVerifierTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String HASH4 = String.format("0x%064x", 4);
+    private static final int CONFIRMATIONS = 12;
+    private static final int HEAD = 120;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private StubEthereumNode node;
+    private ExecutorService executor;
+    private FinalityVerifier verifier;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        transactionRepository.deleteAll();
+        node = new StubEthereumNode();
+        node.addTransaction(HASH1, 101, 1);
+        node.addTransaction(HASH2, 102, 1);
+        node.addTransaction(HASH3, 110, 1);
+        node.addTransaction(HASH4, HEAD, 1);
+        executor = Executors.newSingleThreadExecutor();
+        BlockchainService blockchainService = new BlockchainService(NodePool.of(List.of(node.url()), meterRegistry), 10, executor, 5000, meterRegistry);
+        verifier = new FinalityVerifier(blockchainService, transactionRepository, new TransactionCache(1024 * 1024, 5000), CONFIRMATIONS, 100,
+                meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        node.close();
+    }
+
+    @Test
+    public void testFinalityOnInsert() {
+        transactionRepository.saveAllNew(List.of(createTransaction(HASH1, 101), createTransaction(HASH3, null)));
+
+        assertThat(finality(HASH1)).isEqualTo(Finality.PROVISIONAL);
+        assertThat(finality(HASH3)).isEqualTo(Finality.PENDING);
+    }
+
+    @Test
+    public void testConfirmedBlockPromotedToFinal() throws IOException {
+        transactionRepository.saveAllNew(List.of(createTransaction(HASH1, 101), createTransaction(HASH4, HEAD)));
+
+        assertThat(verifier.verifyProvisional()).isEqualTo(1);
+
+        assertThat(finality(HASH1)).isEqualTo(Finality.FINAL);
+        assertThat(finality(HASH4)).isEqualTo(Finality.PROVISIONAL);
+    }
+
+    @Test
+    public void testReorgedTransactionMovedToCurrentBlock() throws IOException {
+        Transaction reorged = createTransaction(HASH2, 102);
+        reorged.setBlockHash(String.format("0x%064x", 999));
+        transactionRepository.saveAllNew(List.of(reorged));
+
+        assertThat(verifier.verifyProvisional()).isZero();
+
+        Transaction stored = transactionRepository.findByHashIn(List.of(HASH2)).get(0);
+        assertThat(stored.getBlockHash()).isEqualTo(String.format("0x%064x", 102));
+        assertThat(stored.getFinality()).isEqualTo(Finality.PROVISIONAL);
+        assertThat(verifier.verifyProvisional()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMinedPendingTransactionBecomesProvisional() {
+        transactionRepository.saveAllNew(List.of(createTransaction(HASH3, null), createTransaction(String.format("0x%064x", 5), null)));
+
+        assertThat(verifier.verifyPending()).isEqualTo(1);
+
+        Transaction stored = transactionRepository.findByHashIn(List.of(HASH3)).get(0);
+        assertThat(stored.getBlockNumber()).isEqualTo(BigInteger.valueOf(110));
+        assertThat(stored.getFinality()).isEqualTo(Finality.PROVISIONAL);
+    }
+
+    private Finality finality(String hash) {
+        return transactionRepository.findByHashIn(List.of(hash)).get(0).getFinality();
+    }
+
+    private static Transaction createTransaction(String hash, Integer blockNumber) {
+        BigInteger number = blockNumber == null ? null : BigInteger.valueOf(blockNumber);
+        String blockHash = blockNumber == null ? null : String.format("0x%064x", blockNumber);
+        return new Transaction(hash, Boolean.TRUE, blockHash, number, null, null, null, 1, "0x", BigInteger.TEN, null);
+    }
+}
@@ -0,0 +1,71 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import limechain.ethereum_fetcher.service.HashStreamReader.Format;
+import limechain.ethereum_fetcher.util.Hex;
+
+public class HashStreamReaderTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+
+    @Test
+    public void testReadJsonArray() throws IOException {
+        List<String> hashes = HashStreamReader.read(body("[\"" + HASH1 + "\", \"" + HASH2 + "\"]"), Format.JSON, 10);
+
+        assertThat(hashes).containsExactly(HASH1, HASH2);
+    }
+
+    @Test
+    public void testReadLinesSkipsBlankAndUnquotes() throws IOException {
+        List<String> hashes = HashStreamReader.read(body(HASH1 + "\r\n\n\"" + HASH2 + "\"\n" + HASH3), Format.LINES, 10);
+
+        assertThat(hashes).containsExactly(HASH1, HASH2, HASH3);
+    }
+
+    @Test
+    public void testReadBinary() throws IOException {
+        byte[] body = new byte[2 * Hex.HASH_BYTES];
+        body[Hex.HASH_BYTES - 1] = 1;
+        body[2 * Hex.HASH_BYTES - 1] = 2;
+
+        List<String> hashes = HashStreamReader.read(new ByteArrayInputStream(body), Format.BINARY, 10);
+
+        assertThat(hashes).containsExactly(HASH1, HASH2);
+    }
+
+    @Test
+    public void testReadsAtMostMaxHashes() throws IOException {
+        assertThat(HashStreamReader.read(body("[\"" + HASH1 + "\",\"" + HASH2 + "\",\"" + HASH3 + "\"]"), Format.JSON, 2)).containsExactly(HASH1, HASH2);
+        assertThat(HashStreamReader.read(body(HASH1 + "\n" + HASH2 + "\n" + HASH3), Format.LINES, 2)).containsExactly(HASH1, HASH2);
+        assertThat(HashStreamReader.read(new ByteArrayInputStream(new byte[3 * Hex.HASH_BYTES]), Format.BINARY, 2)).hasSize(2);
+    }
+
+    @Test
+    public void testRejectInvalidBody() {
+        // not an array
+        assertThrows(IllegalArgumentException.class, () -> HashStreamReader.read(body("{\"hash\":\"" + HASH1 + "\"}"), Format.JSON, 10));
+        // not a string
+        assertThrows(IllegalArgumentException.class, () -> HashStreamReader.read(body("[\"" + HASH1 + "\", 2]"), Format.JSON, 10));
+        // malformed JSON
+        assertThrows(IllegalArgumentException.class, () -> HashStreamReader.read(body("[\"" + HASH1 + "\" \"" + HASH2 + "\"]"), Format.JSON, 10));
+        // line too long
+        assertThrows(IllegalArgumentException.class, () -> HashStreamReader.read(body(HASH1.repeat(4)), Format.LINES, 10));
+        // partial hash at the end
+        assertThrows(IllegalArgumentException.class, () -> HashStreamReader.read(new ByteArrayInputStream(new byte[Hex.HASH_BYTES + 1]), Format.BINARY, 10));
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
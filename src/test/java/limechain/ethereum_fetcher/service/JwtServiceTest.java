@@ -1,6 +1,7 @@
 package limechain.ethereum_fetcher.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -9,8 +10,12 @@ import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import limechain.ethereum_fetcher.model.User;
 
 public class JwtServiceTest {
 
@@ -21,9 +26,7 @@ public class JwtServiceTest {
 
     @BeforeEach
     public void setUp() {
-        jwtService = new JwtService();
-        jwtService.secretKey = secretKey;
-        jwtService.jwtExpiration = jwtExpiration;
+        jwtService = new JwtService(secretKey, jwtExpiration, 100);
     }
 
     @Test
@@ -49,5 +52,53 @@ public class JwtServiceTest {
             jwtService.isTokenValid(token, userDetails);
         });
     }
+
+    @Test
+    public void testUserIdClaim() {
+        User user = new User("alice", "alice", null);
+        ReflectionTestUtils.setField(user, "id", 7L);
+
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user));
+
+        assertEquals(7L, jwtService.extractUserId(claims));
+        assertTrue(jwtService.isTokenValid(claims));
+    }
+
+    @Test
+    public void testVerifiedClaimsCached() {
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = jwtService.generateToken(userDetails);
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertSame(claims, jwtService.extractAllClaims(token));
+        assertTrue(jwtService.isTokenValid(claims, userDetails));
+    }
+
+    @Test
+    public void testCachedClaimsExpireWithToken() throws InterruptedException {
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = jwtService.generateToken(userDetails);
+        jwtService.extractAllClaims(token);
+
+        Thread.sleep(jwtExpiration + 1000);
+        assertThrows(ExpiredJwtException.class, () -> {
+            jwtService.extractAllClaims(token);
+        });
+    }
+
+    @Test
+    public void testTamperedTokenRejected() {
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn("testUser");
+        String token = jwtService.generateToken(userDetails);
+        jwtService.extractAllClaims(token);
+
+        assertThrows(JwtException.class, () -> {
+            jwtService.extractAllClaims(token.substring(0, token.length() - 2) + "xx");
+        });
+    }
 }
 
@@ -0,0 +1,236 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.config.NodeConnectionListener;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+
+public class NodePoolTest {
+    private static final long HEAD = 123;
+    private static final String HASH = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+
+    private StubEthereumNode slowNode;
+    private StubEthereumNode fastNode;
+    private NodePool pool;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger cancelledCalls = new AtomicInteger();
+    private final OkHttpClient cancelCountingClient = new OkHttpClient.Builder().eventListener(new EventListener() {
+        @Override
+        public void canceled(Call call) {
+            cancelledCalls.incrementAndGet();
+        }
+    }).build();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        slowNode = new StubEthereumNode();
+        fastNode = new StubEthereumNode();
+        slowNode.setHead(HEAD);
+        fastNode.setHead(HEAD);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        slowNode.close();
+        fastNode.close();
+    }
+
+    @Test
+    public void testRoutesToFasterNode() throws IOException {
+        slowNode.setDelayMillis(100);
+        pool = new NodePool(new OkHttpClient(), List.of(slowNode.url(), fastNode.url()), 0.3, 0, 8, 5, 10000, false, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(web3j.ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+        }
+
+        assertThat(slowNode.httpRequests()).isLessThanOrEqualTo(1);
+        assertThat(fastNode.httpRequests()).isGreaterThanOrEqualTo(19);
+    }
+
+    @Test
+    public void testBusyNodeLeavesCallsToOtherNodes() throws Exception {
+        slowNode.setDelayMillis(1000);
+        pool = new NodePool(new OkHttpClient(), List.of(slowNode.url(), fastNode.url()), 0.3, 0, 1, 5, 10000, false, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+        CompletableFuture<?> busy = web3j.ethBlockNumber().sendAsync();
+        await().atMost(Duration.ofSeconds(1)).until(() -> slowNode.httpRequests() == 1);
+
+        long start = System.nanoTime();
+        assertThat(web3j.ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(500);
+        assertThat(fastNode.httpRequests()).isEqualTo(1);
+        assertThat(busy.get()).isNotNull();
+    }
+
+    @Test
+    public void testFailsOverToNextNode() throws IOException {
+        String downUrl = slowNode.url();
+        slowNode.close();
+        pool = new NodePool(new OkHttpClient(), List.of(downUrl, fastNode.url()), 0.3, 0, 8, 5, 10000, false, 50, 32, meterRegistry);
+
+        assertThat(Web3j.build(pool).ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+        assertThat(fastNode.httpRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCircuitBreakerStopsCallsToFailingNode() {
+        String downUrl = slowNode.url();
+        slowNode.close();
+        pool = new NodePool(new OkHttpClient(), List.of(downUrl), 0.3, 0, 8, 2, 60000, false, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> web3j.ethBlockNumber().send()).isInstanceOf(IOException.class);
+        }
+
+        assertThat(meterRegistry.get("ethereum.node.pool.calls").tag("outcome", "error").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testHedgesSlowCall() throws IOException {
+        slowNode.setDelayMillis(2000);
+        pool = new NodePool(cancelCountingClient, List.of(slowNode.url(), fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+
+        long start = System.nanoTime();
+        assertThat(Web3j.build(pool).ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+        assertThat(fastNode.httpRequests()).isEqualTo(1);
+        assertThat(meterRegistry.get("ethereum.node.pool.hedged").counter().count()).isEqualTo(1);
+        // the slower call is cancelled instead of being read to its end, and is not a failure of its node
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(cancelledCalls).hasValue(1));
+        assertThat(meterRegistry.find("ethereum.node.pool.calls").tag("outcome", "error").counter()).isNull();
+    }
+
+    @Test
+    public void testInterruptedCallerCancelsCalls() throws InterruptedException {
+        slowNode.setDelayMillis(2000);
+        fastNode.setDelayMillis(2000);
+        pool = new NodePool(cancelCountingClient, List.of(slowNode.url(), fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                web3j.ethBlockNumber().send();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+
+        caller.start();
+        await().atMost(Duration.ofSeconds(1)).until(() -> meterRegistry.find("ethereum.node.pool.hedged").counter() != null);
+        caller.interrupt();
+        caller.join(1000);
+
+        assertThat(caller.isAlive()).isFalse();
+        assertThat(failure.get()).isInstanceOf(InterruptedIOException.class);
+        assertThat(cancelledCalls).hasValue(2);
+    }
+
+    @Test
+    public void testCallsOnCallingThreadWithoutHedging() throws IOException {
+        Set<String> callingThreads = ConcurrentHashMap.newKeySet();
+        OkHttpClient httpClient = new OkHttpClient.Builder().addInterceptor(chain -> {
+            callingThreads.add(Thread.currentThread().getName());
+            return chain.proceed(chain.request());
+        }).build();
+        pool = new NodePool(httpClient, List.of(slowNode.url(), fastNode.url()), 0.3, 0, 8, 5, 10000, false, 50, 32, meterRegistry);
+
+        assertThat(Web3j.build(pool).ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+
+        assertThat(callingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void testNotHedgedWhenHedgePoolBusy() throws IOException {
+        slowNode.setDelayMillis(300);
+        fastNode.setDelayMillis(300);
+        pool = new NodePool(new OkHttpClient(), List.of(slowNode.url(), fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 1, meterRegistry);
+
+        assertThat(Web3j.build(pool).ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+
+        assertThat(slowNode.httpRequests() + fastNode.httpRequests()).isEqualTo(1);
+        assertThat(meterRegistry.find("ethereum.node.pool.hedged").counter()).isNull();
+    }
+
+    @Test
+    public void testMatchesReorderedBatchResponsesById() throws IOException {
+        fastNode.addTransaction(HASH, 100, 5000);
+        fastNode.addTransaction(HASH2, 101, 3);
+        pool = new NodePool(new OkHttpClient(), List.of(fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+        Request<?, BlockchainService.ReceiptSummaryResponse> largeReceipt = receiptRequest(HASH);
+        Request<?, BlockchainService.ReceiptSummaryResponse> smallReceipt = receiptRequest(HASH2);
+
+        // the stub answers batches in reverse order
+        BatchResponse batch = Web3j.build(pool).newBatch().add(largeReceipt).add(smallReceipt).send();
+
+        assertThat(batch.getResponses()).hasSize(2);
+        Map<Long, ReceiptSummary> receiptsById = new HashMap<>();
+        batch.getResponses().forEach(response -> receiptsById.put(response.getId(), ((BlockchainService.ReceiptSummaryResponse) response).getResult()));
+        assertThat(receiptsById.get(largeReceipt.getId()).getTransactionHash()).isEqualTo(HASH);
+        assertThat(receiptsById.get(largeReceipt.getId()).getLogsCount()).isEqualTo(5000);
+        assertThat(receiptsById.get(smallReceipt.getId()).getTransactionHash()).isEqualTo(HASH2);
+        assertThat(receiptsById.get(smallReceipt.getId()).getLogsCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testRejectsBatchOfMixedResponseTypes() {
+        pool = new NodePool(new OkHttpClient(), List.of(fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+
+        assertThatThrownBy(() -> web3j.newBatch().add(web3j.ethBlockNumber()).add(receiptRequest(HASH)).send()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(fastNode.httpRequests()).isZero();
+    }
+
+    private Request<?, BlockchainService.ReceiptSummaryResponse> receiptRequest(String hash) {
+        return new Request<>("eth_getTransactionReceipt", List.of(hash), pool, BlockchainService.ReceiptSummaryResponse.class);
+    }
+
+    @Test
+    public void testReusesConnectionAndAcceptsGzip() throws IOException {
+        fastNode.setGzip(true);
+        OkHttpClient httpClient = new OkHttpClient.Builder().eventListener(new NodeConnectionListener(meterRegistry)).build();
+        pool = new NodePool(httpClient, List.of(fastNode.url()), 0.3, 0, 8, 5, 10000, true, 50, 32, meterRegistry);
+        Web3j web3j = Web3j.build(pool);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(web3j.ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(HEAD));
+        }
+
+        assertThat(fastNode.gzippedResponses()).isEqualTo(3);
+        assertThat(meterRegistry.get("ethereum.node.http.connections.opened").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("ethereum.node.http.connections.acquired").counter().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,49 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.ObjectMapperFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ReceiptSummaryTest {
+    private static final String HASH = String.format("0x%064x", 1);
+    private static final String CONTRACT = "0xaa449e0226b45d2044b1f721d04001fde02abb08";
+
+    private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+
+    @Test
+    public void testCountsLogsAndSkipsOtherFields() throws IOException {
+        String json = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"transactionHash\":\"" + HASH + "\",\"blockNumber\":\"0x1\","
+                + "\"logs\":[{\"address\":\"" + CONTRACT + "\",\"topics\":[\"0x01\",\"0x02\"],\"data\":\"0x\"},{\"topics\":[],\"data\":\"0x00\"}],"
+                + "\"status\":\"0x0\",\"contractAddress\":\"" + CONTRACT + "\",\"logsBloom\":\"0x00\"}}";
+
+        ReceiptSummary receipt = mapper.readValue(json, BlockchainService.ReceiptSummaryResponse.class).getResult();
+
+        assertThat(receipt.getTransactionHash()).isEqualTo(HASH);
+        assertThat(receipt.getLogsCount()).isEqualTo(2);
+        assertThat(receipt.isStatusOK()).isFalse();
+        assertThat(receipt.getContractAddress()).isEqualTo(CONTRACT);
+    }
+
+    @Test
+    public void testReceiptWithoutStatusIsSuccessful() throws IOException {
+        String json = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"transactionHash\":\"" + HASH + "\",\"contractAddress\":null,\"logs\":[]}}";
+
+        ReceiptSummary receipt = mapper.readValue(json, BlockchainService.ReceiptSummaryResponse.class).getResult();
+
+        assertThat(receipt.isStatusOK()).isTrue();
+        assertThat(receipt.getContractAddress()).isNull();
+        assertThat(receipt.getLogsCount()).isZero();
+    }
+
+    @Test
+    public void testUnknownTransaction() throws IOException {
+        String json = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":null}";
+
+        assertThat(mapper.readValue(json, BlockchainService.ReceiptSummaryResponse.class).getResult()).isNull();
+    }
+}
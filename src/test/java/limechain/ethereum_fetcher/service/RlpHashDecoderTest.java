@@ -0,0 +1,49 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class RlpHashDecoderTest {
+    private static final String HASH1 = "fc2b3b6db38a51db3b9cb95de29b719de8deb99630626e4b4b99df056ffb7f2e";
+    private static final String HASH2 = "48603f7adff7fbfc2a10b22a6710331ee68f2e4d1cd73a584d57c8821df79356";
+
+    @Test
+    public void testDecodeShortList() {
+        List<String> hashes = RlpHashDecoder.decodeHashList("0xf842a0" + HASH1.toUpperCase() + "a0" + HASH2);
+
+        assertThat(hashes).containsExactly("0x" + HASH1, "0x" + HASH2);
+    }
+
+    @Test
+    public void testDecodeLongList() {
+        String rlphex = "f884" + ("a0" + HASH1).repeat(4);
+
+        assertThat(RlpHashDecoder.decodeHashList(rlphex)).hasSize(4).containsOnly("0x" + HASH1);
+    }
+
+    @Test
+    public void testDecodeEmptyList() {
+        assertThat(RlpHashDecoder.decodeHashList("c0")).isEmpty();
+    }
+
+    @Test
+    public void testRejectInvalidPayload() {
+        // not a list
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("a0" + HASH1));
+        // list shorter than declared
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("f842a0" + HASH1));
+        // trailing bytes after the list
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("e1a0" + HASH1 + "00"));
+        // item which is not a 32 byte string
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("e19f" + HASH1.substring(2) + "00"));
+        // non canonical length of length
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("f821a0" + HASH1));
+        // non hex character and odd length
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("e1a0" + HASH1.replace('f', 'g')));
+        assertThrows(IllegalArgumentException.class, () -> RlpHashDecoder.decodeHashList("e1a0" + HASH1 + "0"));
+    }
+}
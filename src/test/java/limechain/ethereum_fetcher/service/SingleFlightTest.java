@@ -0,0 +1,56 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+    private static final String HASH1 = "hash1";
+    private static final String HASH2 = "hash2";
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void testSecondCallerJoinsPendingLoad() throws Exception {
+        List<String> firstClaimed = new ArrayList<>();
+        assertThat(singleFlight.claim(List.of(HASH1), firstClaimed)).isEmpty();
+        assertThat(firstClaimed).containsExactly(HASH1);
+
+        List<String> secondClaimed = new ArrayList<>();
+        Map<String, CompletableFuture<String>> joined = singleFlight.claim(List.of(HASH1, HASH2), secondClaimed);
+        assertThat(secondClaimed).containsExactly(HASH2);
+        assertThat(joined).containsOnlyKeys(HASH1);
+
+        singleFlight.complete(HASH1, "tx1");
+        assertThat(joined.get(HASH1).get()).isEqualTo("tx1");
+        assertThat(singleFlight.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailurePropagatedToJoinedCallers() {
+        singleFlight.claim(List.of(HASH1), new ArrayList<>());
+        CompletableFuture<String> joined = singleFlight.claim(List.of(HASH1), new ArrayList<>()).get(HASH1);
+
+        singleFlight.fail(HASH1, new IllegalStateException("node down"));
+
+        assertThrows(ExecutionException.class, joined::get);
+        assertThat(singleFlight.size()).isZero();
+    }
+
+    @Test
+    public void testKeyClaimableAgainAfterCompletion() {
+        singleFlight.claim(List.of(HASH1), new ArrayList<>());
+        singleFlight.complete(HASH1, null);
+
+        List<String> claimed = new ArrayList<>();
+        assertThat(singleFlight.claim(List.of(HASH1), claimed)).isEmpty();
+        assertThat(claimed).containsExactly(HASH1);
+    }
+}
@@ -0,0 +1,91 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+
+public class StoredHashFilterTest {
+    private static final String STORED = String.format("0x%064x", 1);
+    private static final String ADDED = String.format("0x%064x", 2);
+    private static final int HASHES = 10_000;
+
+    private final TransactionRepository repository = mock(TransactionRepository.class);
+
+    @Test
+    public void testMayContainAnyHashUntilLoaded() {
+        StoredHashFilter filter = new StoredHashFilter(repository, true, HASHES, 0.01, 1 << 20);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain(STORED)).isTrue();
+    }
+
+    @Test
+    public void testContainsLoadedAndAddedHashes() {
+        mockStoredHashes(STORED);
+        StoredHashFilter filter = new StoredHashFilter(repository, true, HASHES, 0.01, 1 << 20);
+        filter.load();
+        filter.putAll(List.of(transaction(ADDED)));
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain(STORED)).isTrue();
+        assertThat(filter.mightContain(STORED.toUpperCase().replace("0X", ""))).isTrue();
+        assertThat(filter.mightContain(ADDED)).isTrue();
+        assertThat(filter.mightContain(String.format("0x%064x", 3))).isFalse();
+    }
+
+    @Test
+    public void testFalsePositiveRateWithinBound() {
+        mockStoredHashes();
+        StoredHashFilter filter = new StoredHashFilter(repository, true, HASHES, 0.01, 1 << 20);
+        filter.load();
+        for (int i = 0; i < HASHES; i++) {
+            filter.putAll(List.of(transaction(String.format("0x%064x", i))));
+        }
+
+        int falsePositives = 0;
+        for (int i = HASHES; i < 2 * HASHES; i++) {
+            if (filter.mightContain(String.format("0x%064x", i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(HASHES * 2 / 100);
+        assertThat(filter.expectedFpp()).isLessThan(0.02);
+    }
+
+    @Test
+    public void testMemoryBoundedByMaxBytes() {
+        mockStoredHashes();
+        StoredHashFilter filter = new StoredHashFilter(repository, true, HASHES, 0.01, 64);
+        filter.load();
+        filter.putAll(List.of(transaction(STORED)));
+
+        // 512 bits for 10000 expected hashes still hold the added ones, at a high false positive rate
+        assertThat(filter.mightContain(STORED)).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockStoredHashes(String... hashes) {
+        when(repository.forEachHash(any())).then(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            for (String hash : hashes) {
+                action.accept(hash);
+            }
+            return (long) hashes.length;
+        });
+    }
+
+    private static Transaction transaction(String hash) {
+        Transaction transaction = new Transaction();
+        transaction.setHash(hash);
+        return transaction;
+    }
+}
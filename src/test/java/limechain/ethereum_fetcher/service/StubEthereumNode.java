@@ -0,0 +1,274 @@
+package limechain.ethereum_fetcher.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal JSON-RPC Ethereum node on a loopback port, answers single and batch calls from in-memory transactions.
+ * Blocks consist of the added transactions with the same block number, blocks up to the head without transactions are
+ * empty. The head is the highest block with transactions unless set.
+ */
+public class StubEthereumNode implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, ObjectNode> transactions = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> receipts = new ConcurrentHashMap<>();
+    private final Map<Long, List<String>> blocks = new ConcurrentHashMap<>();
+    private final AtomicLong head = new AtomicLong();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger httpRequests = new AtomicInteger();
+    private final AtomicInteger gzippedResponses = new AtomicInteger();
+    private volatile boolean rejectBatches;
+    private final AtomicInteger failingBatches = new AtomicInteger();
+    private volatile boolean blockReceiptsSupported = true;
+    private volatile long delayMillis;
+    private volatile boolean gzip;
+    private volatile boolean closed;
+
+    public StubEthereumNode() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public void addTransaction(String hash, long blockNumber, int logsCount) {
+        ObjectNode tx = mapper.createObjectNode();
+        tx.put("hash", hash);
+        tx.put("blockHash", blockHash(blockNumber));
+        tx.put("blockNumber", quantity(blockNumber));
+        tx.put("transactionIndex", "0x0");
+        tx.put("nonce", "0x0");
+        tx.put("from", "0x1fc35b79fb11ea7d4532da128dfa9db573c51b09");
+        tx.put("to", "0xaa449e0226b45d2044b1f721d04001fde02abb08");
+        tx.put("value", quantity(blockNumber));
+        tx.put("gas", "0x5208");
+        tx.put("gasPrice", "0x1");
+        tx.put("input", "0x");
+        transactions.put(hash, tx);
+
+        ObjectNode receipt = mapper.createObjectNode();
+        receipt.put("transactionHash", hash);
+        receipt.put("transactionIndex", "0x0");
+        receipt.put("blockHash", blockHash(blockNumber));
+        receipt.put("blockNumber", quantity(blockNumber));
+        receipt.put("cumulativeGasUsed", "0x5208");
+        receipt.put("gasUsed", "0x5208");
+        receipt.put("status", "0x1");
+        receipt.putNull("contractAddress");
+        ArrayNode logs = receipt.putArray("logs");
+        for (int i = 0; i < logsCount; i++) {
+            ObjectNode log = logs.addObject();
+            log.put("address", "0xaa449e0226b45d2044b1f721d04001fde02abb08");
+            log.put("logIndex", quantity(i));
+            log.put("data", "0x");
+            log.putArray("topics");
+        }
+        receipts.put(hash, receipt);
+        blocks.computeIfAbsent(blockNumber, n -> new CopyOnWriteArrayList<>()).add(hash);
+        head.accumulateAndGet(blockNumber, Math::max);
+    }
+
+    public void setHead(long blockNumber) {
+        head.set(blockNumber);
+    }
+
+    /** Answers {@code eth_getBlockReceipts} with method not found, like nodes without it. */
+    public void setBlockReceiptsSupported(boolean blockReceiptsSupported) {
+        this.blockReceiptsSupported = blockReceiptsSupported;
+    }
+
+    /** Answers batch requests with a single JSON-RPC error object, like nodes without batch support. */
+    public void setRejectBatches(boolean rejectBatches) {
+        this.rejectBatches = rejectBatches;
+    }
+
+    /** Answers the next batch requests with HTTP 500, like a node failing for a moment. */
+    public void setFailingBatches(int failingBatches) {
+        this.failingBatches.set(failingBatches);
+    }
+
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /** Compresses responses to clients which accept gzip. */
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public int gzippedResponses() {
+        return gzippedResponses.get();
+    }
+
+    public int httpRequests() {
+        return httpRequests.get();
+    }
+
+    public int calls(String method) {
+        AtomicInteger counter = calls.get(method);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public void resetCounters() {
+        httpRequests.set(0);
+        calls.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        httpRequests.incrementAndGet();
+        JsonNode body = mapper.readTree(exchange.getRequestBody());
+        if (body.isArray() && failingBatches.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        JsonNode reply;
+        if (body.isArray()) {
+            if (rejectBatches) {
+                reply = error(NullNode.getInstance(), -32600, "batch requests are not supported");
+            } else {
+                // answer in reverse order, clients must correlate responses by id
+                ArrayNode replies = mapper.createArrayNode();
+                body.forEach(request -> replies.insert(0, call(request)));
+                reply = replies;
+            }
+        } else {
+            reply = call(body);
+        }
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = mapper.writeValueAsBytes(reply);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        if (gzip && "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            gzippedResponses.incrementAndGet();
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private JsonNode call(JsonNode request) {
+        String method = request.path("method").asText();
+        JsonNode params = request.path("params");
+        calls.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+        switch (method) {
+        case "eth_getTransactionByHash":
+            return result(request.get("id"), transactions.get(params.path(0).asText()));
+        case "eth_getTransactionReceipt":
+            return result(request.get("id"), receipts.get(params.path(0).asText()));
+        case "eth_blockNumber":
+            return result(request.get("id"), mapper.getNodeFactory().textNode(quantity(head.get())));
+        case "eth_getBlockByNumber":
+            return result(request.get("id"), block(Long.decode(params.path(0).asText())));
+        case "eth_getBlockReceipts":
+            if (!blockReceiptsSupported) {
+                return error(request.get("id"), -32601, "the method " + method + " does not exist");
+            }
+            return result(request.get("id"), blockReceipts(Long.decode(params.path(0).asText())));
+        default:
+            return error(request.get("id"), -32601, "the method " + method + " does not exist");
+        }
+    }
+
+    private ObjectNode block(long blockNumber) {
+        if (blockNumber > head.get()) {
+            return null;
+        }
+        List<String> hashes = blocks.getOrDefault(blockNumber, List.of());
+        ObjectNode block = mapper.createObjectNode();
+        block.put("number", quantity(blockNumber));
+        block.put("hash", blockHash(blockNumber));
+        block.put("parentHash", blockHash(blockNumber - 1));
+        block.put("timestamp", quantity(blockNumber));
+        ArrayNode blockTransactions = block.putArray("transactions");
+        hashes.forEach(hash -> blockTransactions.add(transactions.get(hash)));
+        block.putArray("uncles");
+        return block;
+    }
+
+    private ArrayNode blockReceipts(long blockNumber) {
+        if (blockNumber > head.get()) {
+            return null;
+        }
+        List<String> hashes = blocks.getOrDefault(blockNumber, List.of());
+        ArrayNode blockReceipts = mapper.createArrayNode();
+        hashes.forEach(hash -> blockReceipts.add(receipts.get(hash)));
+        return blockReceipts;
+    }
+
+    private ObjectNode result(JsonNode id, JsonNode result) {
+        ObjectNode response = mapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        response.set("result", result == null ? NullNode.getInstance() : result);
+        return response;
+    }
+
+    private ObjectNode error(JsonNode id, int code, String message) {
+        ObjectNode response = mapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        ObjectNode error = response.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        return response;
+    }
+
+    private static String quantity(long value) {
+        return "0x" + BigInteger.valueOf(value).toString(16);
+    }
+
+    private static String blockHash(long blockNumber) {
+        return String.format("0x%064x", blockNumber);
+    }
+}
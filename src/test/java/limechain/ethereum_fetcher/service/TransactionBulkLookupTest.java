@@ -0,0 +1,78 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import limechain.ethereum_fetcher.model.Transaction;
+
+public class TransactionBulkLookupTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+
+    private final TransactionService service = mock(TransactionService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionBulkLookup bulkLookup = new TransactionBulkLookup(service, objectMapper, 2, 3);
+
+    @Test
+    public void testLooksUpDistinctHashesInChunks() throws IOException, TransactionException {
+        when(service.findByHashList(List.of(HASH1, HASH2))).thenReturn(new FetchResult(List.of(transaction(HASH1), transaction(HASH2)), Set.of()));
+        when(service.findByHashList(List.of(HASH3))).thenReturn(new FetchResult(List.of(), Set.of(HASH3)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = bulkLookup.write(List.of(HASH1, HASH2, "0x" + HASH1.substring(2).toUpperCase(), HASH1.substring(2), HASH3), out);
+
+        JsonNode response = objectMapper.readTree(out.toString(StandardCharsets.UTF_8));
+        assertThat(count).isEqualTo(2);
+        assertThat(response.get("transactions").findValuesAsText("hash")).containsExactly(HASH1, HASH2);
+        assertThat(response.get("failedHashes")).extracting(JsonNode::asText).containsExactly(HASH3);
+        verify(service).findByHashList(List.of(HASH1, HASH2));
+        verify(service).findByHashList(List.of(HASH3));
+    }
+
+    @Test
+    public void testWritesCbor() throws IOException, TransactionException {
+        when(service.findByHashList(List.of(HASH1))).thenReturn(new FetchResult(List.of(transaction(HASH1)), Set.of()));
+        CBORMapper cborMapper = new CBORMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bulkLookup.write(List.of(HASH1), cborMapper, out);
+
+        JsonNode response = cborMapper.readTree(out.toByteArray());
+        assertThat(response.get("transactions").findValuesAsText("hash")).containsExactly(HASH1);
+        assertThat(response.has("failedHashes")).isFalse();
+    }
+
+    @Test
+    public void testRejectsMoreThanMaxHashes() throws IOException {
+        String body = String.join("\n", HASH1, HASH2, HASH3);
+        assertThat(bulkLookup.readHashes(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), HashStreamReader.Format.LINES)).hasSize(3);
+
+        byte[] tooMany = (body + "\n" + HASH1).getBytes(StandardCharsets.UTF_8);
+        assertThrows(TransactionBulkLookup.TooManyHashesException.class,
+                () -> bulkLookup.readHashes(new ByteArrayInputStream(tooMany), HashStreamReader.Format.LINES));
+    }
+
+    private static Transaction transaction(String hash) {
+        Transaction transaction = new Transaction();
+        transaction.setHash(hash);
+        return transaction;
+    }
+}
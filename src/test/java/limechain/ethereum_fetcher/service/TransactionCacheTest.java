@@ -0,0 +1,82 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import limechain.ethereum_fetcher.model.Finality;
+import limechain.ethereum_fetcher.model.Transaction;
+
+public class TransactionCacheTest {
+    private static final String HASH1 = "0xAB01";
+    private static final String HASH2 = "0xab02";
+    private static final long PROVISIONAL_TTL_MS = 100;
+
+    private final TransactionCache cache = new TransactionCache(1024 * 1024, PROVISIONAL_TTL_MS);
+
+    @Test
+    public void testLookupByNormalizedHash() {
+        Transaction transaction = createTransaction(HASH1, BigInteger.ONE);
+        cache.putAll(List.of(transaction));
+
+        assertThat(cache.getAll(List.of(HASH1.toLowerCase(), HASH2))).containsOnlyKeys(HASH1.toLowerCase()).containsValue(transaction);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPendingTransactionNotCached() {
+        cache.putAll(List.of(createTransaction(HASH1, null)));
+
+        assertThat(cache.getAll(List.of(HASH1))).isEmpty();
+    }
+
+    @Test
+    public void testProvisionalTransactionExpires() throws InterruptedException {
+        cache.putAll(List.of(createTransaction(HASH1, BigInteger.valueOf(100))));
+
+        Thread.sleep(PROVISIONAL_TTL_MS * 3);
+
+        assertThat(cache.getAll(List.of(HASH1))).isEmpty();
+    }
+
+    @Test
+    public void testDeepProvisionalTransactionExpires() throws InterruptedException {
+        // many confirmations, but the block is not verified yet
+        cache.putAll(List.of(createTransaction(HASH2, BigInteger.valueOf(1000)), createTransaction(HASH1, BigInteger.valueOf(100))));
+
+        Thread.sleep(PROVISIONAL_TTL_MS * 3);
+
+        assertThat(cache.getAll(List.of(HASH1))).isEmpty();
+    }
+
+    @Test
+    public void testFinalTransactionKept() throws InterruptedException {
+        Transaction transaction = createTransaction(HASH1, BigInteger.valueOf(100));
+        transaction.setFinality(Finality.FINAL);
+        cache.putAll(List.of(transaction));
+
+        Thread.sleep(PROVISIONAL_TTL_MS * 3);
+
+        assertThat(cache.getAll(List.of(HASH1))).hasSize(1);
+    }
+
+    @Test
+    public void testBoundedByWeight() {
+        TransactionCache smallCache = new TransactionCache(4096, PROVISIONAL_TTL_MS);
+        for (int i = 0; i < 1000; i++) {
+            smallCache.putAll(List.of(createTransaction("0x" + i, BigInteger.ONE)));
+        }
+        smallCache.cleanUp();
+
+        assertThat(smallCache.estimatedSize()).isLessThan(1000);
+        assertThat(smallCache.stats().evictionCount()).isPositive();
+    }
+
+    private Transaction createTransaction(String hash, BigInteger blockNumber) {
+        return new Transaction(hash, Boolean.TRUE, hash, blockNumber, hash, hash, null, 0, "0x", BigInteger.TEN, null);
+    }
+}
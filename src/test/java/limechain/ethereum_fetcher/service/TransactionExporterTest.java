@@ -0,0 +1,75 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import limechain.ethereum_fetcher.model.Transaction;
+import limechain.ethereum_fetcher.model.User;
+import limechain.ethereum_fetcher.repository.TransactionRepository;
+import limechain.ethereum_fetcher.repository.UserRepository;
+
+@DataJpaTest
+@Import({ TransactionExporter.class, JacksonAutoConfiguration.class })
+@TestPropertySource(properties = "transaction.export.chunk-size=2")
+public class TransactionExporterTest {
+
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String ADDRESS = String.format("0x%040x", 1);
+    @Autowired
+    private TransactionExporter exporter;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testExportAllAsNdjson() throws IOException {
+        transactionRepository.save(createTransaction(HASH1));
+        transactionRepository.save(createTransaction(HASH2));
+        transactionRepository.saveAndFlush(createTransaction(HASH3));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exporter.exportAll(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readValue(lines[0], Transaction.class).getHash()).isEqualTo(HASH1);
+        assertThat(objectMapper.readValue(lines[2], Transaction.class).getHash()).isEqualTo(HASH3);
+    }
+
+    @Test
+    public void testExportByUser() throws IOException {
+        Transaction trx1 = transactionRepository.save(createTransaction(HASH1));
+        transactionRepository.save(createTransaction(HASH2));
+        User alice = userRepository.saveAndFlush(new User("alice", "alice", Set.of(trx1)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exporter.exportByUser(alice.getId(), out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains(HASH1).doesNotContain(HASH2).endsWith("\n");
+    }
+
+    private Transaction createTransaction(String hash) {
+        return new Transaction(hash, Boolean.TRUE, hash, BigInteger.TWO, ADDRESS, ADDRESS, null, 5, "0x", BigInteger.TEN, null);
+    }
+}
@@ -0,0 +1,59 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import limechain.ethereum_fetcher.model.Transaction;
+
+public class TransactionPagerTest {
+
+    private final TransactionPager pager = new TransactionPager(2, 3);
+    private final List<Transaction> transactions = LongStream.rangeClosed(1, 5).mapToObj(TransactionPagerTest::createTransaction).toList();
+
+    @Test
+    public void testWalkPages() {
+        TransactionPage first = pager.page(null, null, this::query);
+        assertThat(first.getTransactions()).extracting(Transaction::getId).containsExactly(1L, 2L);
+
+        TransactionPage second = pager.page(first.getNext(), null, this::query);
+        assertThat(second.getTransactions()).extracting(Transaction::getId).containsExactly(3L, 4L);
+
+        TransactionPage last = pager.page(second.getNext(), null, this::query);
+        assertThat(last.getTransactions()).extracting(Transaction::getId).containsExactly(5L);
+        assertThat(last.getNext()).isNull();
+    }
+
+    @Test
+    public void testLimitClampedToMaxSize() {
+        assertThat(pager.page(null, 100, this::query).getTransactions()).hasSize(3);
+    }
+
+    @Test
+    public void testCursorRoundTrip() {
+        assertThat(TransactionPager.decode(TransactionPager.encode(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionPager.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionPager.decode("aWQ6eA"));
+    }
+
+    private List<Transaction> query(Long afterId, Pageable pageable) {
+        return transactions.stream().filter(t -> t.getId() > afterId).limit(pageable.getPageSize()).toList();
+    }
+
+    private static Transaction createTransaction(long id) {
+        Transaction transaction = new Transaction("0x" + id, Boolean.TRUE, "0x", BigInteger.ONE, "0x", "0x", null, 0, "0x", BigInteger.TEN, null);
+        ReflectionTestUtils.setField(transaction, "id", id);
+        return transaction;
+    }
+}
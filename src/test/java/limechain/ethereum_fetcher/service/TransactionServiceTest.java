@@ -1,9 +1,14 @@
 package limechain.ethereum_fetcher.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -12,53 +17,73 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.core.Request;
-import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.EthTransaction;
-import org.web3j.protocol.core.methods.response.Log;
-import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
-import org.web3j.protocol.http.HttpService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import limechain.ethereum_fetcher.model.AuthenticatedUser;
 import limechain.ethereum_fetcher.model.Transaction;
-import limechain.ethereum_fetcher.model.User;
 import limechain.ethereum_fetcher.repository.TransactionRepository;
-import limechain.ethereum_fetcher.repository.UserRepository;
 
 public class TransactionServiceTest {
     private static final int LOGS_COUNT = 5;
     private static final String ALICE = "alice";
-    private static final String HASH1 = "hash1";
-    private static final String HASH2 = "hash2";
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final Long USER_ID = 7L;
+    private static final Long TRX_ID = 11L;
 
     @Mock
     private Web3j web3j;
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
-    private UserRepository userRepository;
-    @Mock
     private Authentication authentication;
+    @Mock
+    private BlockPrefetcher blockPrefetcher;
+    @Mock
+    private NodePool nodePool;
 
     private TransactionService transactionService;
+    private TransactionCache transactionCache;
+    private StoredHashFilter storedHashFilter;
+    private NotFoundCache notFoundCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    private static MockedStatic<SecurityContextHolder> securityContextHolderMock;
+    private static MockedStatic<Web3j> web3jMock;
 
     @BeforeAll
     public static void setUpBefore() {
-        mockStatic(SecurityContextHolder.class);
-        mockStatic(Web3j.class);
+        securityContextHolderMock = mockStatic(SecurityContextHolder.class);
+        web3jMock = mockStatic(Web3j.class);
+    }
+
+    @AfterAll
+    public static void tearDownAfter() {
+        securityContextHolderMock.close();
+        web3jMock.close();
     }
 
     @BeforeEach
@@ -67,8 +92,14 @@ public class TransactionServiceTest {
         SecurityContext securityContext = mock(SecurityContext.class);
         when(SecurityContextHolder.getContext()).thenReturn(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(Web3j.build(any(HttpService.class))).thenReturn(web3j);
-        this.transactionService = new TransactionService("", transactionRepository, userRepository);
+        when(Web3j.build(any(Web3jService.class))).thenReturn(web3j);
+        this.transactionCache = new TransactionCache(1024 * 1024, 5000);
+        this.storedHashFilter = new StoredHashFilter(transactionRepository, true, 1000, 0.01, 1024);
+        this.notFoundCache = new NotFoundCache(5000, 1000);
+        this.meterRegistry = new SimpleMeterRegistry();
+        when(transactionRepository.saveMissingAndLink(any(), any())).then(invocation -> invocation.getArgument(0));
+        this.transactionService = new TransactionService(new BlockchainService(nodePool, 1, Executors.newFixedThreadPool(2), 5000, meterRegistry),
+                transactionCache, storedHashFilter, notFoundCache, transactionRepository, new TransactionPager(100, 1000), blockPrefetcher, meterRegistry, Runnable::run, true, 5000);
     }
 
     @Test
@@ -79,12 +110,30 @@ public class TransactionServiceTest {
         Transaction existingTransaction2 = createTransaction(HASH2);
         when(transactionRepository.findByHashIn(hashes)).thenReturn(Arrays.asList(existingTransaction1, existingTransaction2));
 
-        Collection<Transaction> result = transactionService.findByHashList(hashes);
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
 
         assertThat(result).hasSize(2);
         assertThat(result).containsExactly(existingTransaction1, existingTransaction2);
     }
 
+    @Test
+    public void testFindByHashList_CachedTransactionsSkipDb() throws IOException, TransactionException {
+        List<String> hashes = Arrays.asList(HASH1, HASH2);
+
+        Transaction existingTransaction1 = createTransaction(HASH1);
+        Transaction existingTransaction2 = createTransaction(HASH2);
+        when(transactionRepository.findByHashIn(hashes)).thenReturn(Arrays.asList(existingTransaction1, existingTransaction2));
+        transactionService.findByHashList(hashes);
+
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
+
+        assertThat(result).containsExactlyInAnyOrder(existingTransaction1, existingTransaction2);
+        verify(transactionRepository, times(1)).findByHashIn(any());
+        assertThat(transactionCache.stats().hitCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("transactions.lookups").tag("source", "cache").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("transactions.lookups").tag("source", "db").counter().count()).isEqualTo(2);
+    }
+
     @Test
     public void testFindByHashList_NewTransactionsFromBlockchain() throws IOException, TransactionException {
 
@@ -93,13 +142,6 @@ public class TransactionServiceTest {
         List<String> hashes = Collections.singletonList(HASH1);
         when(transactionRepository.findByHashIn(hashes)).thenReturn(new ArrayList<Transaction>());
 
-        TransactionReceipt receipt = mock(TransactionReceipt.class);
-        when(receipt.isStatusOK()).thenReturn(true);
-        when(receipt.getLogs()).thenReturn(Collections.nCopies(LOGS_COUNT, new Log()));
-
-        EthGetTransactionReceipt ethGetTransactionReceipt = mock(EthGetTransactionReceipt.class);
-        when(ethGetTransactionReceipt.getTransactionReceipt()).thenReturn(Optional.of(receipt));
-
         org.web3j.protocol.core.methods.response.Transaction web3Transaction = mock(org.web3j.protocol.core.methods.response.Transaction.class);
         when(web3Transaction.getHash()).thenReturn(HASH1);
         int i = 0;
@@ -113,12 +155,9 @@ public class TransactionServiceTest {
         when(web3Transaction.getValue()).thenReturn(BigInteger.TWO);
 
         mockWeb3j(web3Transaction);
+        mockReceipt(new ReceiptSummary(HASH1, "0x1", null, LOGS_COUNT));
 
-        Request requestTransactionReceipt = mock(Request.class);
-        when(web3j.ethGetTransactionReceipt(HASH1)).thenReturn(requestTransactionReceipt);
-        when(requestTransactionReceipt.send()).thenReturn(ethGetTransactionReceipt);
-
-        Collection<Transaction> result = transactionService.findByHashList(hashes);
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
 
         assertThat(result).hasSize(1);
 
@@ -134,6 +173,32 @@ public class TransactionServiceTest {
         assertThat(trx.getContractAddress()).isEqualTo(HASH1 + i++);
         assertThat(trx.getInput()).isEqualTo(HASH1 + i++);
         assertThat(trx.getValue()).isEqualTo(BigInteger.TWO);
+        verify(blockPrefetcher).prefetchBlocksOf(any());
+        // the mocked request has no method, its latency is still recorded
+        assertThat(meterRegistry.get("ethereum.node.requests").tag("method", "unknown").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindByHashList_StoredMeanwhileByOtherInstance() throws IOException, TransactionException {
+
+        when(authentication.isAuthenticated()).thenReturn(false);
+
+        List<String> hashes = Collections.singletonList(HASH1);
+        when(transactionRepository.findByHashIn(hashes)).thenReturn(new ArrayList<Transaction>());
+        when(transactionRepository.saveMissingAndLink(any(), any())).thenThrow(new DataIntegrityViolationException(Transaction.UQ_TRANSACTION_HASH))
+                .thenReturn(List.of(createTransaction(HASH1)));
+
+        org.web3j.protocol.core.methods.response.Transaction web3Transaction = mock(org.web3j.protocol.core.methods.response.Transaction.class);
+        when(web3Transaction.getHash()).thenReturn(HASH1);
+        mockWeb3j(web3Transaction);
+        mockReceipt(null);
+
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
+
+        assertThat(result).hasSize(1);
+        assertThat(result.iterator().next().getHash()).isEqualTo(HASH1);
+        verify(transactionRepository, times(2)).saveMissingAndLink(any(), any());
+        assertThat(meterRegistry.get("transactions.store.conflicts").tag("operation", "insert").counter().count()).isEqualTo(1);
     }
 
     @Test
@@ -146,7 +211,7 @@ public class TransactionServiceTest {
 
         mockWeb3j(null);
 
-        Collection<Transaction> result = transactionService.findByHashList(hashes);
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
 
         assertThat(result).hasSize(0);
     }
@@ -154,35 +219,115 @@ public class TransactionServiceTest {
     @Test
     public void testFindByHashList_UserAuthenticated() throws IOException, TransactionException {
         when(authentication.isAuthenticated()).thenReturn(true);
-        User user = new User(ALICE, ALICE, new HashSet<Transaction>());
-        when(authentication.getPrincipal()).thenReturn(user);
-        when(userRepository.findById(any())).thenReturn(Optional.of(user));
+        when(authentication.getPrincipal()).thenReturn(new AuthenticatedUser(USER_ID, ALICE));
 
         List<String> hashes = Collections.singletonList(HASH1);
         when(transactionRepository.findByHashIn(hashes)).thenReturn(new ArrayList<Transaction>());
-
-        TransactionReceipt receipt = mock(TransactionReceipt.class);
-        when(receipt.isStatusOK()).thenReturn(true);
-
-        EthGetTransactionReceipt ethGetTransactionReceipt = mock(EthGetTransactionReceipt.class);
-        when(ethGetTransactionReceipt.getTransactionReceipt()).thenReturn(Optional.of(receipt));
+        when(transactionRepository.saveMissingAndLink(any(), eq(USER_ID))).then(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(t -> ReflectionTestUtils.setField(t, "id", TRX_ID));
+            return transactions;
+        });
 
         org.web3j.protocol.core.methods.response.Transaction web3Transaction = mock(org.web3j.protocol.core.methods.response.Transaction.class);
         when(web3Transaction.getHash()).thenReturn(HASH1);
 
         mockWeb3j(web3Transaction);
+        mockReceipt(new ReceiptSummary(HASH1, "0x1", null, 0));
 
-        Request requestTransactionReceipt = mock(Request.class);
-        when(web3j.ethGetTransactionReceipt(HASH1)).thenReturn(requestTransactionReceipt);
-        when(requestTransactionReceipt.send()).thenReturn(ethGetTransactionReceipt);
-
-        Collection<Transaction> result = transactionService.findByHashList(hashes);
+        Collection<Transaction> result = transactionService.findByHashList(hashes).getTransactions();
 
         assertThat(result).hasSize(1);
         Transaction trx = result.iterator().next();
         assertThat(trx.getHash()).isEqualTo(HASH1);
-        assertThat(user.getTransactions().size()).isEqualTo(1);
-        assertThat(user.getTransactions()).containsExactly(trx);
+        // linked in the transaction of the insert
+        verify(transactionRepository).saveMissingAndLink(any(), eq(USER_ID));
+        verify(transactionRepository, never()).linkToUser(any(), any());
+    }
+
+    @Test
+    public void testFindByHashListAsync_StoredCompletesOnCallingThreadMissingRejectedWhenBusy() throws IOException {
+        TransactionService busyService = new TransactionService(new BlockchainService(nodePool, 1, Executors.newFixedThreadPool(2), 5000, meterRegistry),
+                transactionCache, storedHashFilter, notFoundCache, transactionRepository, new TransactionPager(100, 1000), blockPrefetcher, meterRegistry, command -> {
+                    throw new RejectedExecutionException("busy");
+                }, true, 5000);
+        List<String> hashes = Arrays.asList(HASH1, HASH2);
+        when(transactionRepository.findByHashIn(hashes)).thenReturn(Arrays.asList(createTransaction(HASH1), createTransaction(HASH2)));
+
+        CompletableFuture<FetchResult> stored = busyService.findByHashListAsync(hashes);
+
+        assertThat(stored).isDone();
+        assertThat(stored.join().getTransactions()).hasSize(2);
+        assertThatThrownBy(() -> busyService.findByHashListAsync(List.of(String.format("0x%064x", 3)))).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    public void testStreamByHashList_StoredHandedOverBeforeFetch() throws IOException {
+        when(authentication.isAuthenticated()).thenReturn(false);
+        List<String> hashes = Arrays.asList(HASH2, HASH1);
+        when(transactionRepository.findByHashIn(hashes)).thenReturn(new ArrayList<>(List.of(createTransaction(HASH2))));
+
+        org.web3j.protocol.core.methods.response.Transaction web3Transaction = mock(org.web3j.protocol.core.methods.response.Transaction.class);
+        when(web3Transaction.getHash()).thenReturn(HASH1);
+        mockWeb3j(web3Transaction);
+        mockReceipt(new ReceiptSummary(HASH1, "0x1", null, LOGS_COUNT));
+        List<List<String>> handedOver = new ArrayList<>();
+
+        FetchResult result = transactionService.streamByHashList(hashes, transactions -> {
+            if (handedOver.isEmpty()) {
+                verify(web3j, never()).ethGetTransactionByHash(any());
+            }
+            handedOver.add(transactions.stream().map(Transaction::getHash).toList());
+        });
+
+        assertThat(handedOver).containsExactly(List.of(HASH2), List.of(HASH1));
+        assertThat(result.getTransactions()).extracting(Transaction::getHash).containsExactly(HASH2, HASH1);
+        assertThat(result.getFailedHashes()).isEmpty();
+    }
+
+    @Test
+    public void testFindByHashList_NotStoredSkipsDbAndNotFoundIsCached() throws IOException, TransactionException {
+        when(authentication.isAuthenticated()).thenReturn(false);
+        storedHashFilter.load();
+        mockWeb3j(null);
+
+        assertThat(transactionService.findByHashList(List.of(HASH1)).getTransactions()).isEmpty();
+        assertThat(transactionService.findByHashList(List.of(HASH1)).getTransactions()).isEmpty();
+
+        // checked at the DB once, after the node did not know it
+        verify(transactionRepository, times(1)).findByHashIn(List.of(HASH1));
+        verify(web3j, times(1)).ethGetTransactionByHash(HASH1);
+        assertThat(meterRegistry.get("transactions.lookups").tag("source", "not_found_cache").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("transactions.stored.filter").tag("outcome", "absent").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindByHashList_StoredAfterFilterLoadedFoundAtDbWhenNodeMisses() throws IOException, TransactionException {
+        when(authentication.isAuthenticated()).thenReturn(false);
+        storedHashFilter.load();
+        mockWeb3j(null);
+        when(transactionRepository.findByHashIn(List.of(HASH1))).thenReturn(new ArrayList<>(List.of(createTransaction(HASH1))));
+
+        FetchResult result = transactionService.findByHashList(List.of(HASH1));
+
+        assertThat(result.getTransactions()).extracting(Transaction::getHash).containsExactly(HASH1);
+        assertThat(result.getFailedHashes()).isEmpty();
+        assertThat(notFoundCache.contains(HASH1)).isFalse();
+        assertThat(storedHashFilter.mightContain(HASH1)).isTrue();
+        assertThat(meterRegistry.get("transactions.stored.filter").tag("outcome", "stale").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("transactions.lookups").tag("source", "db").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("transactions.lookups").tag("source", "node").counter().count()).isZero();
+    }
+
+    @Test
+    public void testFindByHashList_UpperCaseHashMatchesStored() throws IOException, TransactionException {
+        String hash = "0x" + "ab".repeat(32);
+        when(transactionRepository.findByHashIn(List.of(hash))).thenReturn(new ArrayList<>(List.of(createTransaction(hash))));
+
+        Collection<Transaction> result = transactionService.findByHashList(List.of(" " + hash.toUpperCase().replace("0X", "0x"))).getTransactions();
+
+        assertThat(result).extracting(Transaction::getHash).containsExactly(hash);
+        verify(web3j, never()).ethGetTransactionByHash(any());
     }
 
     @Test
@@ -208,5 +353,11 @@ public class TransactionServiceTest {
         when(ethTransaction.getTransaction()).thenReturn(Optional.ofNullable(web3Transaction));
         when(requestTransaction.send()).thenReturn(ethTransaction);
     }
+
+    private void mockReceipt(ReceiptSummary receipt) throws IOException {
+        BlockchainService.ReceiptSummaryResponse response = new BlockchainService.ReceiptSummaryResponse();
+        response.setResult(receipt);
+        when(nodePool.send(any(), eq(BlockchainService.ReceiptSummaryResponse.class))).thenReturn(response);
+    }
 }
 
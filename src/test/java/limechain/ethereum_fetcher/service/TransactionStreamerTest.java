@@ -0,0 +1,102 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import limechain.ethereum_fetcher.model.Transaction;
+
+public class TransactionStreamerTest {
+    private static final String HASH1 = String.format("0x%064x", 1);
+    private static final String HASH2 = String.format("0x%064x", 2);
+    private static final String HASH3 = String.format("0x%064x", 3);
+    private static final String HASH4 = String.format("0x%064x", 4);
+    private static final List<String> HASHES = List.of(HASH1, HASH2, HASH3, HASH4);
+
+    private final TransactionService service = mock(TransactionService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionStreamer streamer = new TransactionStreamer(service, objectMapper);
+
+    @Test
+    public void testStreamsNdjsonWithSummary() throws IOException {
+        mockLookup();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = streamer.stream(HASHES, TransactionStreamer.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).get("hash").asText()).isEqualTo(HASH1);
+        assertThat(objectMapper.readTree(lines[1]).get("hash").asText()).isEqualTo(HASH2);
+        JsonNode summary = objectMapper.readTree(lines[2]);
+        assertThat(summary.get("notFoundHashes")).extracting(JsonNode::asText).containsExactly(HASH3);
+        assertThat(summary.get("failedHashes")).extracting(JsonNode::asText).containsExactly(HASH4);
+    }
+
+    @Test
+    public void testStreamsServerSentEvents() throws IOException {
+        mockLookup();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        streamer.stream(HASHES, TransactionStreamer.Format.SSE, out);
+
+        String[] events = out.toString(StandardCharsets.UTF_8).split("\n\n");
+        assertThat(events).hasSize(3);
+        assertThat(events[0]).startsWith("event: transaction\ndata: {");
+        assertThat(events[2]).startsWith("event: summary\ndata: {\"notFoundHashes\":[\"" + HASH3 + "\"]");
+    }
+
+    @Test
+    public void testMatchesHashesWithoutPrefixAndReportsMalformed() throws IOException {
+        List<String> hashes = List.of(HASH1.substring(2), " " + HASH3.substring(2).toUpperCase(), "0xnothex");
+        when(service.streamByHashList(eq(hashes), any())).then(invocation -> {
+            TransactionService.TransactionSink sink = invocation.getArgument(1);
+            sink.accept(List.of(transaction(HASH1)));
+            return new FetchResult(List.of(transaction(HASH1)), Set.of());
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = streamer.stream(hashes, TransactionStreamer.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        JsonNode summary = objectMapper.readTree(lines[1]);
+        assertThat(summary.get("notFoundHashes")).extracting(JsonNode::asText).containsExactly(HASH3);
+        assertThat(summary.get("malformedHashes")).extracting(JsonNode::asText).containsExactly("0xnothex");
+        assertThat(summary.has("failedHashes")).isFalse();
+    }
+
+    /**
+     * The stored transaction is handed over at first, the one of the node afterwards, once more by a joined fetch.
+     */
+    private void mockLookup() throws IOException {
+        when(service.streamByHashList(eq(HASHES), any())).then(invocation -> {
+            TransactionService.TransactionSink sink = invocation.getArgument(1);
+            sink.accept(List.of(transaction(HASH1)));
+            sink.accept(List.of(transaction(HASH2)));
+            sink.accept(List.of(transaction(HASH2)));
+            return new FetchResult(List.of(transaction(HASH1), transaction(HASH2)), Set.of(HASH4));
+        });
+    }
+
+    private static Transaction transaction(String hash) {
+        Transaction transaction = new Transaction();
+        transaction.setHash(hash);
+        return transaction;
+    }
+}
@@ -0,0 +1,39 @@
+package limechain.ethereum_fetcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import limechain.ethereum_fetcher.repository.UserRepository;
+
+public class UserIdentityCacheTest {
+    private static final String ALICE = "alice";
+    private static final String BOB = "bob";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdentityCache userIdentityCache = new UserIdentityCache(userRepository, 100, 60_000);
+
+    @Test
+    public void testKnownUserLookedUpOnce() {
+        when(userRepository.findIdByUsername(ALICE)).thenReturn(Optional.of(7L));
+
+        assertThat(userIdentityCache.findUserId(ALICE)).contains(7L);
+        assertThat(userIdentityCache.findUserId(ALICE)).contains(7L);
+
+        verify(userRepository, times(1)).findIdByUsername(ALICE);
+    }
+
+    @Test
+    public void testUnknownUserNotCached() {
+        when(userRepository.findIdByUsername(BOB)).thenReturn(Optional.empty(), Optional.of(8L));
+
+        assertThat(userIdentityCache.findUserId(BOB)).isEmpty();
+        assertThat(userIdentityCache.findUserId(BOB)).contains(8L);
+    }
+}
@@ -0,0 +1,39 @@
+package limechain.ethereum_fetcher.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class HexTest {
+
+    @Test
+    public void testRoundTrip() {
+        byte[] bytes = Hex.decode("0x00FFa0");
+
+        assertThat(bytes).containsExactly(0x00, 0xff, 0xa0);
+        assertThat(Hex.encode(bytes)).isEqualTo("0x00ffa0");
+    }
+
+    @Test
+    public void testDecodeWithoutPrefix() {
+        assertThat(Hex.decode("0a0b")).containsExactly(0x0a, 0x0b);
+        assertThat(Hex.decode("0x")).isEmpty();
+    }
+
+    @Test
+    public void testRejectMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("0xabc"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("0xzz"));
+        assertThat(Hex.isHex("hash1")).isFalse();
+        assertThat(Hex.isHex("0xéé")).isFalse();
+        assertThat(Hex.isHex("0XAB")).isTrue();
+    }
+
+    @Test
+    public void testNormalize() {
+        assertThat(Hex.normalize("0XAbCd")).isEqualTo("0xabcd");
+        assertThat(Hex.normalize("ABcd")).isEqualTo("0xabcd");
+        assertThat(Hex.normalize("0x")).isEqualTo("0x");
+    }
+}